@@ -36,9 +36,11 @@ public class Interactio {
         MOD_BUS = FMLJavaModLoadingContext.get().getModEventBus();
         PROXY = DistExecutor.safeRunForDist(() -> ModProxy.Client::new, () -> ModProxy.Server::new);
 
+        InteractioConfig.register();
+
         InteractioEventHandler.init();
 
-        RecipeUpdateEvent.EVENT.register((rm) -> InWorldRecipeType.clearCache());
+        RecipeUpdateEvent.EVENT.register(InWorldRecipeType::clearCache);
     }
 
     public static ResourceLocation id(String path) {
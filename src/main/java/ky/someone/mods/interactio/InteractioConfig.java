@@ -0,0 +1,70 @@
+package ky.someone.mods.interactio;
+
+import ky.someone.mods.interactio.recipe.limit.OutputBackpressure;
+import net.minecraftforge.common.ForgeConfigSpec;
+import net.minecraftforge.fml.ModLoadingContext;
+import net.minecraftforge.fml.config.ModConfig;
+
+public final class InteractioConfig {
+
+    public static final ForgeConfigSpec SPEC;
+
+    public static final ForgeConfigSpec.BooleanValue LIMIT_CRAFTS;
+    public static final ForgeConfigSpec.DoubleValue CRAFTS_PER_TICK;
+    public static final ForgeConfigSpec.IntValue CRAFT_BURST;
+
+    public static final ForgeConfigSpec.EnumValue<OutputBackpressure.Mode> BACKPRESSURE_MODE;
+    public static final ForgeConfigSpec.IntValue BACKPRESSURE_THRESHOLD;
+
+    public static final ForgeConfigSpec.BooleanValue DEDUPLICATE_SYNC;
+
+    static {
+        ForgeConfigSpec.Builder builder = new ForgeConfigSpec.Builder();
+
+        builder.comment("Limits on how many in-world crafts may happen per chunk and recipe type.",
+                "Crafts exceeding these limits are not dropped, but postponed to later ticks.")
+                .push("rate_limit");
+
+        LIMIT_CRAFTS = builder
+                .comment("Whether crafts should be rate limited at all")
+                .define("enabled", true);
+        CRAFTS_PER_TICK = builder
+                .comment("How many crafts per tick a single chunk may perform for each recipe type, on average")
+                .defineInRange("crafts_per_tick", 16.0, 0.01, 1024.0);
+        CRAFT_BURST = builder
+                .comment("How many crafts a single chunk may perform at once for each recipe type before being limited")
+                .defineInRange("burst", 256, 1, 65536);
+
+        builder.pop();
+
+        builder.comment("What to do with craft outputs in chunks that are already crowded with item entities.")
+                .push("backpressure");
+
+        BACKPRESSURE_MODE = builder
+                .comment("NONE: always spawn new item entities",
+                        "MERGE: merge outputs into the largest matching item stack nearby",
+                        "PAUSE: like MERGE, but also hold back duration crafts from finishing")
+                .defineEnum("mode", OutputBackpressure.Mode.MERGE);
+        BACKPRESSURE_THRESHOLD = builder
+                .comment("How many item entities a chunk needs to contain before backpressure kicks in")
+                .defineInRange("threshold", 200, 1, Integer.MAX_VALUE);
+
+        builder.pop();
+
+        builder.comment("How recipes are sent to clients when they join.")
+                .push("sync");
+
+        DEDUPLICATE_SYNC = builder
+                .comment("Whether ingredients, outputs and events shared between recipes of the same type should only be sent once")
+                .define("deduplicate", true);
+
+        builder.pop();
+
+        SPEC = builder.build();
+    }
+
+    public static void register() {
+        ModLoadingContext.get().registerConfig(ModConfig.Type.SERVER, SPEC);
+    }
+
+}
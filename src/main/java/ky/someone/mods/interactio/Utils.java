@@ -5,13 +5,15 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonSyntaxException;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMaps;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
-import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import ky.someone.mods.interactio.recipe.Events.EventType;
 import ky.someone.mods.interactio.recipe.ingredient.ItemIngredient;
 import ky.someone.mods.interactio.recipe.ingredient.WeightedOutput;
 import ky.someone.mods.interactio.recipe.util.DefaultInfo;
 import ky.someone.mods.interactio.recipe.util.IEntrySerializer;
+import ky.someone.mods.interactio.recipe.util.RecipeRandom;
 import net.minecraft.ChatFormatting;
 import net.minecraft.core.particles.ParticleOptions;
 import net.minecraft.network.chat.Component;
@@ -25,7 +27,6 @@ import net.minecraft.util.Mth;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.item.ItemEntity;
 import net.minecraft.world.item.ItemStack;
-import net.minecraft.world.item.crafting.Ingredient;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.AnvilBlock;
 import net.minecraft.world.level.block.Block;
@@ -61,42 +62,87 @@ public final class Utils {
 
     public static boolean compareStacks(List<ItemEntity> entities, Object2IntMap<ItemEntity> used, Collection<ItemIngredient> ingredients) {
 
-        Collection<ItemIngredient> required = new ObjectOpenHashSet<>();
-        ingredients.forEach(i -> required.add(i.copy()));
+        // ingredients are shared between recipes, so what's still required is tracked here instead of on (copies of) them
+        List<ItemIngredient> required = new ArrayList<>(ingredients);
+        int[] remaining = new int[required.size()];
+        for (int i = 0; i < remaining.length; i++) {
+            remaining[i] = required.get(i).getCount();
+        }
 
         for (ItemEntity entity : entities) {
             ItemStack item = entity.getItem();
 
             if (!entity.isAlive()) return false;
 
-            for (ItemIngredient req : required) {
-                Ingredient ingredient = req.getIngredient();
-                int available = Math.min(req.getCount(), item.getCount());
+            for (int i = 0; i < remaining.length; i++) {
+                if (remaining[i] <= 0) continue;
+                ItemIngredient req = required.get(i);
+                int available = Math.min(remaining[i], item.getCount());
 
-                if (ingredient.test(item)) {
-                    used.mergeInt(entity, available - req.roll(available), Integer::sum);
-                    req.shrink(item.getCount());
+                if (req.getIngredient().test(item)) {
+                    used.mergeInt(entity, available - req.roll(RecipeRandom.get(entity.level), available), Integer::sum);
+                    remaining[i] -= item.getCount();
                     break;
                 }
             }
-
-            required.removeIf(ItemIngredient::isEmpty);
         }
 
-        return required.isEmpty();
+        for (int count : remaining) {
+            if (count > 0) return false;
+        }
+        return true;
     }
 
     public static void shrinkAndUpdate(Object2IntMap<ItemEntity> entities) {
-        entities.forEach((entity, count) -> {
-            entity.setNeverPickUp();
+        Set<ItemEntity> touched = new ReferenceOpenHashSet<>();
+        shrinkInPlace(entities, touched);
+        syncShrunk(touched);
+    }
 
-            ItemStack item = entity.getItem().copy();
-            item.shrink(count);
+    /**
+     * Shrinks the stacks of the given entities in place, without sending any data to clients.
+     * Entities whose stack reaches zero are discarded right away, all others are collected in {@code touched}
+     * so they can be synced once at the end of a craft using {@link #syncShrunk(Collection)}.
+     */
+    public static void shrinkInPlace(Object2IntMap<ItemEntity> entities, Set<ItemEntity> touched) {
+        for (Object2IntMap.Entry<ItemEntity> entry : Object2IntMaps.fastIterable(entities)) {
+            ItemEntity entity = entry.getKey();
+            ItemStack item = entity.getItem();
+            item.shrink(entry.getIntValue());
 
-            entity.setItem(item);
+            if (item.isEmpty()) {
+                entity.remove();
+                touched.remove(entity);
+            } else {
+                touched.add(entity);
+            }
+        }
+    }
 
+    public static void syncShrunk(Collection<ItemEntity> entities) {
+        for (ItemEntity entity : entities) {
+            if (!entity.isAlive()) continue;
+            // synced data only marks itself dirty if the stored reference changes, so we need to set a copy here
+            entity.setItem(entity.getItem().copy());
             entity.setDefaultPickUpDelay();
-        });
+        }
+    }
+
+    /**
+     * @return The number of elements in the given JSON tree, including itself
+     */
+    public static int countJsonNodes(JsonElement json) {
+        int count = 1;
+        if (json.isJsonObject()) {
+            for (Map.Entry<String, JsonElement> entry : json.getAsJsonObject().entrySet()) {
+                count += countJsonNodes(entry.getValue());
+            }
+        } else if (json.isJsonArray()) {
+            for (JsonElement element : json.getAsJsonArray()) {
+                count += countJsonNodes(element);
+            }
+        }
+        return count;
     }
 
     public static <T> WeightedOutput<T> singleOrWeighted(JsonObject json, IEntrySerializer<T> serializer) {
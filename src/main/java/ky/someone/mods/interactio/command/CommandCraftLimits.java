@@ -0,0 +1,49 @@
+package ky.someone.mods.interactio.command;
+
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.CommandDispatcher;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import ky.someone.mods.interactio.InteractioConfig;
+import ky.someone.mods.interactio.recipe.limit.CraftRateLimiter;
+import ky.someone.mods.interactio.recipe.limit.CraftRateLimiter.Bucket;
+import net.minecraft.ChatFormatting;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.network.chat.TextComponent;
+import net.minecraft.world.item.crafting.RecipeType;
+import net.minecraft.world.level.ChunkPos;
+
+import java.util.Map;
+
+import static net.minecraft.commands.Commands.literal;
+
+public class CommandCraftLimits {
+
+    public static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
+        dispatcher.register(literal("craft_limits")
+                .requires(source -> source.hasPermission(2))
+                .executes(ctx -> printLimits(ctx.getSource()))
+        );
+    }
+
+    private static int printLimits(CommandSourceStack source) {
+        source.sendSuccess(new TextComponent("-- Craft Rate Limits --").withStyle(ChatFormatting.YELLOW), false);
+
+        source.sendSuccess(new TextComponent("- Enabled: ").withStyle(ChatFormatting.YELLOW)
+                .append(String.valueOf(InteractioConfig.LIMIT_CRAFTS.get())), false);
+        source.sendSuccess(new TextComponent("- Crafts per tick: ").withStyle(ChatFormatting.YELLOW)
+                .append(String.valueOf(InteractioConfig.CRAFTS_PER_TICK.get())), false);
+        source.sendSuccess(new TextComponent("- Burst: ").withStyle(ChatFormatting.YELLOW)
+                .append(String.valueOf(InteractioConfig.CRAFT_BURST.get())), false);
+
+        source.sendSuccess(new TextComponent("- Active buckets in this dimension:").withStyle(ChatFormatting.YELLOW), false);
+        for (Map.Entry<RecipeType<?>, Long2ObjectMap<Bucket>> entry : CraftRateLimiter.get(source.getLevel()).getBuckets().entrySet()) {
+            for (Long2ObjectMap.Entry<Bucket> bucket : entry.getValue().long2ObjectEntrySet()) {
+                ChunkPos chunk = new ChunkPos(bucket.getLongKey());
+                source.sendSuccess(new TextComponent(String.format("\u2022 %s @ [%d, %d]: %.1f tokens, %d deferred",
+                        entry.getKey(), chunk.x, chunk.z, bucket.getValue().getTokens(), bucket.getValue().getPending())), false);
+            }
+        }
+
+        return Command.SINGLE_SUCCESS;
+    }
+}
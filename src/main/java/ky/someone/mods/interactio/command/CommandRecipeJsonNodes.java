@@ -0,0 +1,46 @@
+package ky.someone.mods.interactio.command;
+
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.CommandDispatcher;
+import ky.someone.mods.interactio.recipe.base.InWorldRecipe;
+import ky.someone.mods.interactio.recipe.base.InWorldRecipeType;
+import ky.someone.mods.interactio.recipe.base.RecipePreParser;
+import net.minecraft.ChatFormatting;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.network.chat.TextComponent;
+
+import static ky.someone.mods.interactio.Utils.countJsonNodes;
+import static net.minecraft.commands.Commands.literal;
+
+public class CommandRecipeJsonNodes {
+
+    public static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
+        dispatcher.register(literal("recipe_json_nodes")
+                .requires(source -> source.hasPermission(2))
+                .executes(ctx -> printNodes(ctx.getSource()))
+        );
+    }
+
+    private static int printNodes(CommandSourceStack source) {
+        source.sendSuccess(new TextComponent("-- In-World Recipe JSON Nodes --").withStyle(ChatFormatting.YELLOW), false);
+
+        long totalSource = 0;
+        long totalRetained = 0;
+        for (InWorldRecipeType<?> type : InWorldRecipeType.all()) {
+            long sourceNodes = RecipePreParser.getSourceJsonNodes(type.serializer);
+            long retainedNodes = 0;
+            for (InWorldRecipe<?, ?, ?> recipe : type.getRecipes()) {
+                retainedNodes += countJsonNodes(recipe.getJson());
+            }
+            totalSource += sourceNodes;
+            totalRetained += retainedNodes;
+            source.sendSuccess(new TextComponent(String.format("\u2022 %s: %d recipes, %d source nodes, %d retained nodes",
+                    type, type.getRecipes().size(), sourceNodes, retainedNodes)), false);
+        }
+
+        source.sendSuccess(new TextComponent(String.format("- Total: %d source nodes, %d retained nodes",
+                totalSource, totalRetained)).withStyle(ChatFormatting.YELLOW), false);
+
+        return Command.SINGLE_SUCCESS;
+    }
+}
@@ -0,0 +1,19 @@
+package ky.someone.mods.interactio.core.mixin;
+
+import ky.someone.mods.interactio.recipe.ingredient.FluidRegionCache;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+@Mixin(Level.class)
+abstract class LevelMixin {
+    @Inject(method = "setBlock(Lnet/minecraft/core/BlockPos;Lnet/minecraft/world/level/block/state/BlockState;II)Z", at = @At("RETURN"))
+    public void invalidateFluidRegions(BlockPos pos, BlockState state, int flags, int recursionLeft, CallbackInfoReturnable<Boolean> cir) {
+        Level level = (Level) (Object) this;
+        if (!level.isClientSide && cir.getReturnValueZ()) FluidRegionCache.onBlockChanged(level, pos);
+    }
+}
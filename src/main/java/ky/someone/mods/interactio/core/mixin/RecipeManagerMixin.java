@@ -2,6 +2,7 @@ package ky.someone.mods.interactio.core.mixin;
 
 import com.google.gson.JsonObject;
 import ky.someone.mods.interactio.recipe.base.InWorldRecipeType;
+import ky.someone.mods.interactio.recipe.base.RecipePreParser;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.packs.resources.ResourceManager;
 import net.minecraft.util.profiling.ProfilerFiller;
@@ -15,8 +16,14 @@ import java.util.Map;
 
 @Mixin(RecipeManager.class)
 public abstract class RecipeManagerMixin {
+    @Inject(method = "apply", at = @At("HEAD"))
+    public void preParse(Map<ResourceLocation, JsonObject> map, ResourceManager resourceManager, ProfilerFiller profiler, CallbackInfo ci) {
+        RecipePreParser.preParse(map);
+    }
+
     @Inject(method = "apply", at = @At("RETURN"))
     public void clearCache(Map<ResourceLocation, JsonObject> map, ResourceManager resourceManager, ProfilerFiller profiler, CallbackInfo ci) {
-        InWorldRecipeType.clearCache();
+        RecipePreParser.clear();
+        InWorldRecipeType.clearCache((RecipeManager) (Object) this);
     }
 }
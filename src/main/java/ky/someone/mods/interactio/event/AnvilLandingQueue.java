@@ -0,0 +1,149 @@
+package ky.someone.mods.interactio.event;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import ky.someone.mods.interactio.recipe.BlockAnvilSmashingRecipe;
+import ky.someone.mods.interactio.recipe.ItemAnvilSmashingRecipe;
+import ky.someone.mods.interactio.recipe.base.InWorldRecipeType;
+import ky.someone.mods.interactio.recipe.ingredient.ItemIngredient;
+import ky.someone.mods.interactio.recipe.util.DefaultInfo;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.entity.item.ItemEntity;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.phys.AABB;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Collects all anvil landings within a tick and processes them in one go after the level has ticked,
+ * so that anvil spam only costs one entity query per chunk section and one recipe lookup
+ * per distinct hit block state or set of items.
+ */
+public class AnvilLandingQueue {
+    protected static Map<Level, AnvilLandingQueue> queues = new WeakHashMap<>();
+
+    public static AnvilLandingQueue get(Level level) {
+        return queues.computeIfAbsent(level, k -> new AnvilLandingQueue());
+    }
+
+    public static void processAll(Level level) {
+        AnvilLandingQueue queue = queues.get(level);
+        if (queue != null) queue.process(level);
+    }
+
+    // anvil positions, grouped by the chunk section they landed in
+    protected Long2ObjectMap<List<BlockPos>> landings = new Long2ObjectLinkedOpenHashMap<>();
+
+    protected AnvilLandingQueue() {
+    }
+
+    public void enqueue(BlockPos pos) {
+        long section = SectionPos.of(pos).asLong();
+        List<BlockPos> list = landings.get(section);
+        if (list == null) {
+            list = new ArrayList<>();
+            landings.put(section, list);
+        }
+        list.add(pos.immutable());
+    }
+
+    public void process(Level level) {
+        if (landings.isEmpty()) return;
+
+        // swap the queue out first, anvils landing as a result of these crafts will be handled next tick
+        Long2ObjectMap<List<BlockPos>> batch = landings;
+        landings = new Long2ObjectLinkedOpenHashMap<>();
+
+        Map<BlockState, List<BlockAnvilSmashingRecipe>> blockCandidates = new HashMap<>();
+        Map<Set<Item>, List<ItemAnvilSmashingRecipe>> itemCandidates = new HashMap<>();
+
+        for (List<BlockPos> section : batch.values()) {
+            AABB sectionBounds = bounds(section);
+            List<ItemEntity> sectionItems = level.getEntitiesOfClass(ItemEntity.class, sectionBounds);
+
+            for (BlockPos pos : section) {
+                boolean crafted = false;
+
+                AABB box = new AABB(pos);
+                List<ItemEntity> items = sectionItems.stream()
+                        .filter(ItemEntity::isAlive)
+                        .filter(e -> e.getBoundingBox().intersects(box))
+                        .collect(Collectors.toList());
+
+                BlockPos hitPos = pos.below();
+                BlockState hitState = level.getBlockState(hitPos);
+
+                Set<Item> present = items.stream()
+                        .map(ItemEntity::getItem)
+                        .filter(InWorldRecipeType.ITEM_ANVIL::isValidInput)
+                        .map(ItemStack::getItem)
+                        .collect(Collectors.toSet());
+
+                if (!present.isEmpty()) {
+                    for (ItemAnvilSmashingRecipe recipe : itemCandidates.computeIfAbsent(present, AnvilLandingQueue::findItemCandidates)) {
+                        DefaultInfo info = new DefaultInfo(recipe, level, pos);
+                        if (recipe.canCraft(items, hitState, info)) {
+                            recipe.craft(items, info);
+                            crafted = true;
+                        }
+                    }
+                }
+
+                for (BlockAnvilSmashingRecipe recipe : blockCandidates.computeIfAbsent(hitState, AnvilLandingQueue::findBlockCandidates)) {
+                    DefaultInfo info = new DefaultInfo(recipe, level, hitPos);
+                    if (recipe.canCraft(pos, hitState, info)) {
+                        recipe.craft(pos, info);
+                        crafted = true;
+                        break;
+                    }
+                }
+
+                // outputs spawned by this anvil have to be visible to the anvils landing after it,
+                // same as if every landing had queried its items on its own
+                if (crafted) sectionItems = level.getEntitiesOfClass(ItemEntity.class, sectionBounds);
+            }
+        }
+    }
+
+    private static AABB bounds(List<BlockPos> positions) {
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+        for (BlockPos pos : positions) {
+            minX = Math.min(minX, pos.getX());
+            minY = Math.min(minY, pos.getY());
+            minZ = Math.min(minZ, pos.getZ());
+            maxX = Math.max(maxX, pos.getX());
+            maxY = Math.max(maxY, pos.getY());
+            maxZ = Math.max(maxZ, pos.getZ());
+        }
+        return new AABB(minX, minY, minZ, maxX + 1, maxY + 1, maxZ + 1);
+    }
+
+    private static List<BlockAnvilSmashingRecipe> findBlockCandidates(BlockState state) {
+        return InWorldRecipeType.BLOCK_ANVIL.stream()
+                .filter(recipe -> recipe.getBlockInput().test(state))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Only keeps recipes for which every input could possibly be satisfied by one of the given items,
+     * the actual (count and NBT-sensitive) check is still left to {@link ItemAnvilSmashingRecipe#canCraft}.
+     */
+    private static List<ItemAnvilSmashingRecipe> findItemCandidates(Set<Item> present) {
+        return InWorldRecipeType.ITEM_ANVIL.stream()
+                .filter(recipe -> recipe.getItemInputs().stream().allMatch(input -> couldMatch(input, present)))
+                .collect(Collectors.toList());
+    }
+
+    private static boolean couldMatch(ItemIngredient input, Set<Item> present) {
+        for (ItemStack stack : input.getIngredient().getItems()) {
+            if (present.contains(stack.getItem())) return true;
+        }
+        return false;
+    }
+}
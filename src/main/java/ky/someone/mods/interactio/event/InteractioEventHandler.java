@@ -1,8 +1,11 @@
 package ky.someone.mods.interactio.event;
 
-import ky.someone.mods.interactio.Utils;
+import ky.someone.mods.interactio.recipe.BlockLightningRecipe;
+import ky.someone.mods.interactio.recipe.ItemExplosionRecipe;
+import ky.someone.mods.interactio.recipe.ItemLightningRecipe;
 import ky.someone.mods.interactio.recipe.base.InWorldRecipeType;
 import ky.someone.mods.interactio.recipe.duration.DurationManager;
+import ky.someone.mods.interactio.recipe.limit.CraftRateLimiter;
 import ky.someone.mods.interactio.recipe.util.DefaultInfo;
 import ky.someone.mods.interactio.recipe.util.EntityInfo;
 import ky.someone.mods.interactio.recipe.util.ExplosionInfo;
@@ -22,10 +25,12 @@ import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.phys.AABB;
 import net.minecraft.world.phys.Vec3;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static ky.someone.mods.interactio.Utils.isAnvil;
+import static ky.someone.mods.interactio.Utils.isItem;
 
 public enum InteractioEventHandler {
 
@@ -37,67 +42,86 @@ public enum InteractioEventHandler {
         BlockEvent.FALLING_LAND.register(InteractioEventHandler::acme);
         EntityEvent.LIVING_DEATH.register(InteractioEventHandler::oof);
         TickEvent.SERVER_WORLD_POST.register(DurationManager::tickAllRecipes);
+        TickEvent.SERVER_WORLD_POST.register(AnvilLandingQueue::processAll);
+        TickEvent.SERVER_WORLD_POST.register(CraftRateLimiter::tickAll);
+        LifecycleEvent.SERVER_WORLD_UNLOAD.register(CraftRateLimiter::unload);
     }
 
     public static void boom(Level level, Explosion explosion, List<Entity> entities) {
         if (level.isClientSide) return;
 
-        List<ItemEntity> items = entities
-                .stream()
-                .filter(Utils::isItem)
-                .map(ItemEntity.class::cast)
-                .filter(e -> InWorldRecipeType.ITEM_EXPLODE.isValidInput(e.getItem()))
-                .collect(Collectors.toList());
-
-        List<BlockPos> blocks = explosion.getToBlow();
-
-        InWorldRecipeType.ITEM_EXPLODE
-                .applyAll(recipe -> recipe.canCraft(items, new ExplosionInfo(recipe, level, explosion)),
-                        recipe -> recipe.craft(items, new ExplosionInfo(recipe, level, explosion)));
-
-        // since we're removing blocks from the affected block list, we need to do this
-        blocks.stream().filter(pos -> !level.isEmptyBlock(pos)).forEach(pos -> {
-            BlockState state = level.getBlockState(pos);
-
-            InWorldRecipeType.BLOCK_EXPLODE
-                    .apply(recipe -> recipe.canCraft(pos, state, new ExplosionInfo(recipe, level, explosion)),
-                            recipe -> recipe.craft(pos, new ExplosionInfo(recipe, level, explosion)));
-        });
+        if (InWorldRecipeType.ITEM_EXPLODE.hasRecipes()) {
+            List<ItemEntity> items = collectInputs(entities, InWorldRecipeType.ITEM_EXPLODE);
+            if (!items.isEmpty()) {
+                for (ItemExplosionRecipe recipe : InWorldRecipeType.ITEM_EXPLODE.getRecipes()) {
+                    ExplosionInfo info = new ExplosionInfo(recipe, level, explosion);
+                    if (recipe.canCraft(items, info)) recipe.craft(items, info);
+                }
+            }
+        }
+
+        if (InWorldRecipeType.BLOCK_EXPLODE.hasRecipes()) {
+            // since recipes may remove blocks from the affected block list, we need to iterate over a copy
+            for (BlockPos pos : new ArrayList<>(explosion.getToBlow())) {
+                BlockState state = level.getBlockState(pos);
+                if (state.isAir() || !InWorldRecipeType.BLOCK_EXPLODE.isValidBlock(state)) continue;
+
+                InWorldRecipeType.BLOCK_EXPLODE
+                        .apply(recipe -> recipe.canCraft(pos, state, new ExplosionInfo(recipe, level, explosion)),
+                                recipe -> recipe.craft(pos, new ExplosionInfo(recipe, level, explosion)));
+            }
+        }
     }
 
     public static void bzzt(LightningBolt bolt, Level level, Vec3 pos, List<Entity> toStrike) {
         if (!bolt.isAlive()) return;
 
-        List<ItemEntity> entities = toStrike.stream()
-                .filter(Utils::isItem)
-                .map(ItemEntity.class::cast)
-                .filter(entity -> InWorldRecipeType.ITEM_LIGHTNING.isValidInput(entity.getItem()))
-                .collect(Collectors.toList());
-
-        InWorldRecipeType.ITEM_LIGHTNING.applyAll(recipe -> recipe.canCraft(entities, new DefaultInfo(recipe, level, bolt.blockPosition())),
-                recipe -> recipe.craft(entities, new DefaultInfo(recipe, level, bolt.blockPosition())));
-
-        BlockPos target = bolt.blockPosition().below();
-        BlockState state = level.getBlockState(target);
-        InWorldRecipeType.BLOCK_LIGHTNING.applyAll(recipe -> recipe.canCraft(target, state, new DefaultInfo(recipe, level, target)),
-                recipe -> recipe.craft(target, new DefaultInfo(recipe, level, target)));
+        if (InWorldRecipeType.ITEM_LIGHTNING.hasRecipes()) {
+            List<ItemEntity> entities = collectInputs(toStrike, InWorldRecipeType.ITEM_LIGHTNING);
+            if (!entities.isEmpty()) {
+                BlockPos boltPos = bolt.blockPosition();
+                for (ItemLightningRecipe recipe : InWorldRecipeType.ITEM_LIGHTNING.getRecipes()) {
+                    DefaultInfo info = new DefaultInfo(recipe, level, boltPos);
+                    if (recipe.canCraft(entities, info)) recipe.craft(entities, info);
+                }
+            }
+        }
+
+        if (InWorldRecipeType.BLOCK_LIGHTNING.hasRecipes()) {
+            BlockPos target = bolt.blockPosition().below();
+            BlockState state = level.getBlockState(target);
+            if (InWorldRecipeType.BLOCK_LIGHTNING.isValidBlock(state)) {
+                for (BlockLightningRecipe recipe : InWorldRecipeType.BLOCK_LIGHTNING.getRecipes()) {
+                    DefaultInfo info = new DefaultInfo(recipe, level, target);
+                    if (recipe.canCraft(target, state, info)) recipe.craft(target, info);
+                }
+            }
+        }
 
         bolt.remove();
     }
 
-    public static void acme(Level level, BlockPos pos, BlockState fallState, BlockState landOn, FallingBlockEntity entity) {
-        if (!isAnvil(fallState)) return;
-
-        List<ItemEntity> items = level.getEntitiesOfClass(ItemEntity.class, new AABB(pos));
-        BlockPos hitPos = pos.below();
-        BlockState hitState = level.getBlockState(hitPos);
-
-        InWorldRecipeType.ITEM_ANVIL.applyAll(recipe -> recipe.canCraft(items, hitState, new DefaultInfo(recipe, level, pos)),
-                recipe -> recipe.craft(items, new DefaultInfo(recipe, level, pos)));
+    /**
+     * @return All item entities among the given entities which are valid inputs for the given recipe type,
+     * or an empty list if there are none (without allocating a new one)
+     */
+    private static List<ItemEntity> collectInputs(List<Entity> entities, InWorldRecipeType<?> type) {
+        List<ItemEntity> items = Collections.emptyList();
+        for (Entity entity : entities) {
+            if (!isItem(entity)) continue;
+            ItemEntity item = (ItemEntity) entity;
+            if (!type.isValidInput(item.getItem())) continue;
+            if (items.isEmpty()) items = new ArrayList<>();
+            items.add(item);
+        }
+        return items;
+    }
 
-        InWorldRecipeType.BLOCK_ANVIL.apply(recipe -> recipe.canCraft(pos, hitState, new DefaultInfo(recipe, level, hitPos)),
-                recipe -> recipe.craft(pos, new DefaultInfo(recipe, level, hitPos)));
+    // landings are only queued here, the actual crafts happen in bulk once the level is done ticking
+    public static void acme(Level level, BlockPos pos, BlockState fallState, BlockState landOn, FallingBlockEntity entity) {
+        if (level.isClientSide || !isAnvil(fallState)) return;
 
+        AnvilLandingQueue.get(level).enqueue(pos);
     }
 
     public static InteractionResult oof(LivingEntity entity, DamageSource source) {
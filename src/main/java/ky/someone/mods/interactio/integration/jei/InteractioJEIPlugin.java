@@ -4,7 +4,6 @@ import ky.someone.mods.interactio.Interactio;
 import ky.someone.mods.interactio.integration.jei.categories.*;
 import ky.someone.mods.interactio.recipe.base.InWorldRecipeType;
 import ky.someone.mods.interactio.recipe.ingredient.DynamicOutput;
-import ky.someone.mods.interactio.recipe.ingredient.WeightedOutput;
 import mezz.jei.api.IModPlugin;
 import mezz.jei.api.JeiPlugin;
 import mezz.jei.api.constants.VanillaTypes;
@@ -17,6 +16,7 @@ import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.item.ItemStack;
 import net.minecraftforge.fluids.FluidStack;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.stream.Collectors;
 
@@ -61,17 +61,13 @@ public class InteractioJEIPlugin implements IModPlugin {
 
     public static void setOutputLists(IIngredients ingredients, DynamicOutput output) {
         if (output.isItem()) {
-            ingredients.setOutputLists(VanillaTypes.ITEM, Collections.singletonList(output.itemOutput.stream()
-                    .map(WeightedOutput.WeightedEntry::getResult)
-                    .collect(Collectors.toList())));
+            ingredients.setOutputLists(VanillaTypes.ITEM, Collections.singletonList(new ArrayList<>(output.itemOutput.getResults())));
         } else if (output.isBlock()) {
-            ingredients.setOutputLists(VanillaTypes.ITEM, Collections.singletonList(output.blockOutput.stream()
-                    .map(WeightedOutput.WeightedEntry::getResult)
+            ingredients.setOutputLists(VanillaTypes.ITEM, Collections.singletonList(output.blockOutput.getResults().stream()
                     .map(ItemStack::new)
                     .collect(Collectors.toList())));
         } else if (output.isFluid()) {
-            ingredients.setOutputLists(VanillaTypes.FLUID, Collections.singletonList(output.fluidOutput.stream()
-                    .map(WeightedOutput.WeightedEntry::getResult)
+            ingredients.setOutputLists(VanillaTypes.FLUID, Collections.singletonList(output.fluidOutput.getResults().stream()
                     .map(fluid -> new FluidStack(fluid, 1000))
                     .collect(Collectors.toList())));
         } else throw new IllegalArgumentException("Output is not a valid type!");
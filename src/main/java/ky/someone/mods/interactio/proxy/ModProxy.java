@@ -1,11 +1,14 @@
 package ky.someone.mods.interactio.proxy;
 
 import ky.someone.mods.interactio.Interactio;
+import ky.someone.mods.interactio.command.CommandCraftLimits;
 import ky.someone.mods.interactio.command.CommandItemInfo;
+import ky.someone.mods.interactio.command.CommandRecipeJsonNodes;
 import ky.someone.mods.interactio.command.CommandRegistryDump;
 import ky.someone.mods.interactio.command.RegistryArgument;
 import ky.someone.mods.interactio.recipe.Events;
 import ky.someone.mods.interactio.recipe.base.InWorldRecipeType;
+import ky.someone.mods.interactio.recipe.ingredient.TagCache;
 import net.minecraft.SharedConstants;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.multiplayer.ClientLevel;
@@ -17,6 +20,7 @@ import net.minecraft.world.item.crafting.RecipeManager;
 import net.minecraft.world.level.Level;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.event.RegisterCommandsEvent;
+import net.minecraftforge.event.TagsUpdatedEvent;
 import net.minecraftforge.fml.event.lifecycle.FMLCommonSetupEvent;
 import net.minecraftforge.fml.event.server.FMLServerAboutToStartEvent;
 
@@ -34,6 +38,7 @@ public abstract class ModProxy implements IProxy {
         // Forge Event Bus events
         MinecraftForge.EVENT_BUS.addListener((FMLServerAboutToStartEvent event) -> this.server = event.getServer());
         MinecraftForge.EVENT_BUS.addListener(this::registerCommands);
+        MinecraftForge.EVENT_BUS.addListener((TagsUpdatedEvent event) -> TagCache.invalidate());
 
         Interactio.MOD_BUS.addListener(this::preInit);
 
@@ -47,6 +52,8 @@ public abstract class ModProxy implements IProxy {
     private void registerCommands(RegisterCommandsEvent event) {
         CommandItemInfo.register(event.getDispatcher());
         CommandRegistryDump.register(event.getDispatcher());
+        CommandCraftLimits.register(event.getDispatcher());
+        CommandRecipeJsonNodes.register(event.getDispatcher());
     }
 
     @Nullable
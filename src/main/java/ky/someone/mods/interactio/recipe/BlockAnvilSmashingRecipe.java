@@ -7,12 +7,15 @@ import ky.someone.mods.interactio.recipe.ingredient.BlockIngredient;
 import ky.someone.mods.interactio.recipe.ingredient.DynamicOutput;
 import ky.someone.mods.interactio.recipe.util.DefaultInfo;
 import net.minecraft.core.BlockPos;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.util.GsonHelper;
 import net.minecraft.world.item.crafting.RecipeSerializer;
 import net.minecraft.world.item.crafting.RecipeType;
 import net.minecraft.world.level.block.state.BlockState;
 
+import java.util.function.Supplier;
+
 import static ky.someone.mods.interactio.Utils.testAll;
 
 public final class BlockAnvilSmashingRecipe extends InWorldRecipe<BlockPos, BlockState, DefaultInfo> {
@@ -20,14 +23,14 @@ public final class BlockAnvilSmashingRecipe extends InWorldRecipe<BlockPos, Bloc
     public static final Serializer SERIALIZER = new Serializer();
 
 
-    public BlockAnvilSmashingRecipe(ResourceLocation id, BlockIngredient blockInput, DynamicOutput output, JsonObject json) {
+    public BlockAnvilSmashingRecipe(ResourceLocation id, BlockIngredient blockInput, Supplier<DynamicOutput> output, JsonObject json) {
         super(id, null, blockInput, null, output, false, json);
     }
 
     @Override
     public boolean canCraft(BlockPos pos, BlockState state, DefaultInfo info) {
         return this.blockInput.test(state.getBlock())
-                && testAll(this.startCraftConditions, pos, state, info);
+                && testAll(this.startCraftConditions(), pos, state, info);
     }
 
     // anvilPos will be the position of the anvil
@@ -54,11 +57,24 @@ public final class BlockAnvilSmashingRecipe extends InWorldRecipe<BlockPos, Bloc
 
     private static class Serializer extends InWorldRecipeSerializer<BlockAnvilSmashingRecipe> {
         @Override
-        public BlockAnvilSmashingRecipe fromJson(ResourceLocation id, JsonObject json) {
+        protected BlockAnvilSmashingRecipe parse(ResourceLocation id, JsonObject json) {
             DynamicOutput output = DynamicOutput.create(GsonHelper.getAsJsonObject(json, "output"), "fluid");
             BlockIngredient input = BlockIngredient.deserialize(GsonHelper.getAsJsonObject(json, "input"));
 
-            return new BlockAnvilSmashingRecipe(id, input, output, json);
+            return new BlockAnvilSmashingRecipe(id, input, () -> output, json);
+        }
+
+        @Override
+        protected BlockAnvilSmashingRecipe read(ResourceLocation id, FriendlyByteBuf buffer, JsonObject events) {
+            BlockIngredient input = readShared(buffer, BlockIngredient.class, BlockIngredient::read);
+            Supplier<DynamicOutput> output = readLazy(buffer, DynamicOutput.class, DynamicOutput::read);
+            return new BlockAnvilSmashingRecipe(id, input, output, events);
+        }
+
+        @Override
+        protected void write(FriendlyByteBuf buffer, BlockAnvilSmashingRecipe recipe) {
+            writeShared(buffer, BlockIngredient.class, recipe.getBlockInput(), BlockIngredient::write);
+            writeLazy(buffer, DynamicOutput.class, recipe.getOutput(), DynamicOutput::write);
         }
     }
 }
@@ -10,6 +10,7 @@ import ky.someone.mods.interactio.recipe.ingredient.ItemIngredient;
 import ky.someone.mods.interactio.recipe.util.EntityInfo;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.NonNullList;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.util.GsonHelper;
 import net.minecraft.world.entity.LivingEntity;
@@ -18,6 +19,8 @@ import net.minecraft.world.item.crafting.RecipeSerializer;
 import net.minecraft.world.item.crafting.RecipeType;
 import net.minecraft.world.level.block.state.BlockState;
 
+import java.util.function.Supplier;
+
 import static ky.someone.mods.interactio.Utils.testAll;
 
 public final class BlockEntityKillRecipe extends InWorldRecipe<BlockPos, BlockState, EntityInfo> {
@@ -25,7 +28,7 @@ public final class BlockEntityKillRecipe extends InWorldRecipe<BlockPos, BlockSt
     public static final Serializer SERIALIZER = new Serializer();
     protected final EntityIngredient entityInput;
 
-    public BlockEntityKillRecipe(ResourceLocation id, BlockIngredient blockInput, EntityIngredient entityInput, DynamicOutput output, JsonObject json) {
+    public BlockEntityKillRecipe(ResourceLocation id, BlockIngredient blockInput, EntityIngredient entityInput, Supplier<DynamicOutput> output, JsonObject json) {
         super(id, null, blockInput, null, output, true, json);
         this.entityInput = entityInput;
     }
@@ -37,7 +40,7 @@ public final class BlockEntityKillRecipe extends InWorldRecipe<BlockPos, BlockSt
     @Override
     public boolean canCraft(BlockPos pos, BlockState state, EntityInfo info) {
         return this.blockInput.test(state.getBlock())
-                && testAll(this.startCraftConditions, pos, state, info);
+                && testAll(this.startCraftConditions(), pos, state, info);
     }
 
     @Override
@@ -71,13 +74,28 @@ public final class BlockEntityKillRecipe extends InWorldRecipe<BlockPos, BlockSt
 
     public static class Serializer extends InWorldRecipeSerializer<BlockEntityKillRecipe> {
         @Override
-        public BlockEntityKillRecipe fromJson(ResourceLocation id, JsonObject json) {
+        protected BlockEntityKillRecipe parse(ResourceLocation id, JsonObject json) {
             DynamicOutput output = DynamicOutput.create(GsonHelper.getAsJsonObject(json, "output"));
 
             BlockIngredient blockInput = BlockIngredient.deserialize(GsonHelper.getAsJsonObject(json, "input"));
             EntityIngredient entityInput = EntityIngredient.deserialize(GsonHelper.getAsJsonObject(json, "entity"));
 
-            return new BlockEntityKillRecipe(id, blockInput, entityInput, output, json);
+            return new BlockEntityKillRecipe(id, blockInput, entityInput, () -> output, json);
+        }
+
+        @Override
+        protected BlockEntityKillRecipe read(ResourceLocation id, FriendlyByteBuf buffer, JsonObject events) {
+            BlockIngredient blockInput = readShared(buffer, BlockIngredient.class, BlockIngredient::read);
+            EntityIngredient entityInput = readShared(buffer, EntityIngredient.class, EntityIngredient::read);
+            Supplier<DynamicOutput> output = readLazy(buffer, DynamicOutput.class, DynamicOutput::read);
+            return new BlockEntityKillRecipe(id, blockInput, entityInput, output, events);
+        }
+
+        @Override
+        protected void write(FriendlyByteBuf buffer, BlockEntityKillRecipe recipe) {
+            writeShared(buffer, BlockIngredient.class, recipe.getBlockInput(), BlockIngredient::write);
+            writeShared(buffer, EntityIngredient.class, recipe.getEntityInput(), EntityIngredient::write);
+            writeLazy(buffer, DynamicOutput.class, recipe.getOutput(), DynamicOutput::write);
         }
     }
 }
@@ -7,19 +7,22 @@ import ky.someone.mods.interactio.recipe.ingredient.BlockIngredient;
 import ky.someone.mods.interactio.recipe.ingredient.DynamicOutput;
 import ky.someone.mods.interactio.recipe.util.ExplosionInfo;
 import net.minecraft.core.BlockPos;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.util.GsonHelper;
 import net.minecraft.world.item.crafting.RecipeSerializer;
 import net.minecraft.world.item.crafting.RecipeType;
 import net.minecraft.world.level.block.state.BlockState;
 
+import java.util.function.Supplier;
+
 import static ky.someone.mods.interactio.Utils.testAll;
 
 public final class BlockExplosionRecipe extends InWorldRecipe<BlockPos, BlockState, ExplosionInfo> {
 
     public static final Serializer SERIALIZER = new Serializer();
 
-    public BlockExplosionRecipe(ResourceLocation id, BlockIngredient blockInput, DynamicOutput output, JsonObject json) {
+    public BlockExplosionRecipe(ResourceLocation id, BlockIngredient blockInput, Supplier<DynamicOutput> output, JsonObject json) {
         super(id, null, blockInput, null, output, false, json);
 
         this.postCraft.put((pos, info, j) -> {
@@ -31,7 +34,7 @@ public final class BlockExplosionRecipe extends InWorldRecipe<BlockPos, BlockSta
     @Override
     public boolean canCraft(BlockPos pos, BlockState state, ExplosionInfo info) {
         return this.blockInput.test(state.getBlock())
-                && testAll(this.startCraftConditions, pos, state, info);
+                && testAll(this.startCraftConditions(), pos, state, info);
     }
 
     @Override
@@ -56,11 +59,24 @@ public final class BlockExplosionRecipe extends InWorldRecipe<BlockPos, BlockSta
 
     private static class Serializer extends InWorldRecipeSerializer<BlockExplosionRecipe> {
         @Override
-        public BlockExplosionRecipe fromJson(ResourceLocation id, JsonObject json) {
+        protected BlockExplosionRecipe parse(ResourceLocation id, JsonObject json) {
             DynamicOutput output = DynamicOutput.create(GsonHelper.getAsJsonObject(json, "output"));
             BlockIngredient input = BlockIngredient.deserialize(GsonHelper.getAsJsonObject(json, "input"));
 
-            return new BlockExplosionRecipe(id, input, output, json);
+            return new BlockExplosionRecipe(id, input, () -> output, json);
+        }
+
+        @Override
+        protected BlockExplosionRecipe read(ResourceLocation id, FriendlyByteBuf buffer, JsonObject events) {
+            BlockIngredient input = readShared(buffer, BlockIngredient.class, BlockIngredient::read);
+            Supplier<DynamicOutput> output = readLazy(buffer, DynamicOutput.class, DynamicOutput::read);
+            return new BlockExplosionRecipe(id, input, output, events);
+        }
+
+        @Override
+        protected void write(FriendlyByteBuf buffer, BlockExplosionRecipe recipe) {
+            writeShared(buffer, BlockIngredient.class, recipe.getBlockInput(), BlockIngredient::write);
+            writeLazy(buffer, DynamicOutput.class, recipe.getOutput(), DynamicOutput::write);
         }
     }
 }
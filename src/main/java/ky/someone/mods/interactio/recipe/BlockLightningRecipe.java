@@ -8,12 +8,15 @@ import ky.someone.mods.interactio.recipe.ingredient.BlockIngredient;
 import ky.someone.mods.interactio.recipe.ingredient.DynamicOutput;
 import ky.someone.mods.interactio.recipe.util.DefaultInfo;
 import net.minecraft.core.BlockPos;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.util.GsonHelper;
 import net.minecraft.world.item.crafting.RecipeSerializer;
 import net.minecraft.world.item.crafting.RecipeType;
 import net.minecraft.world.level.block.state.BlockState;
 
+import java.util.function.Supplier;
+
 import static ky.someone.mods.interactio.Utils.testAll;
 
 public final class BlockLightningRecipe extends InWorldRecipe<BlockPos, BlockState, DefaultInfo> {
@@ -22,7 +25,7 @@ public final class BlockLightningRecipe extends InWorldRecipe<BlockPos, BlockSta
 
     private final double chance;
 
-    public BlockLightningRecipe(ResourceLocation id, BlockIngredient blockInput, DynamicOutput output, double chance, JsonObject json) {
+    public BlockLightningRecipe(ResourceLocation id, BlockIngredient blockInput, Supplier<DynamicOutput> output, double chance, JsonObject json) {
         super(id, null, blockInput, null, output, false, json);
         this.chance = chance;
     }
@@ -30,7 +33,7 @@ public final class BlockLightningRecipe extends InWorldRecipe<BlockPos, BlockSta
     @Override
     public boolean canCraft(BlockPos pos, BlockState state, DefaultInfo info) {
         return this.blockInput.test(state.getBlock())
-                && testAll(this.startCraftConditions, pos, state, info);
+                && testAll(this.startCraftConditions(), pos, state, info);
     }
 
     @Override
@@ -59,13 +62,28 @@ public final class BlockLightningRecipe extends InWorldRecipe<BlockPos, BlockSta
 
     private static class Serializer extends InWorldRecipeSerializer<BlockLightningRecipe> {
         @Override
-        public BlockLightningRecipe fromJson(ResourceLocation id, JsonObject json) {
+        protected BlockLightningRecipe parse(ResourceLocation id, JsonObject json) {
             DynamicOutput output = DynamicOutput.create(GsonHelper.getAsJsonObject(json, "output"));
             BlockIngredient input = BlockIngredient.deserialize(GsonHelper.getAsJsonObject(json, "input"));
 
             double chance = Utils.parseChance(json, "chance");
 
-            return new BlockLightningRecipe(id, input, output, chance, json);
+            return new BlockLightningRecipe(id, input, () -> output, chance, json);
+        }
+
+        @Override
+        protected BlockLightningRecipe read(ResourceLocation id, FriendlyByteBuf buffer, JsonObject events) {
+            BlockIngredient input = readShared(buffer, BlockIngredient.class, BlockIngredient::read);
+            Supplier<DynamicOutput> output = readLazy(buffer, DynamicOutput.class, DynamicOutput::read);
+            double chance = buffer.readDouble();
+            return new BlockLightningRecipe(id, input, output, chance, events);
+        }
+
+        @Override
+        protected void write(FriendlyByteBuf buffer, BlockLightningRecipe recipe) {
+            writeShared(buffer, BlockIngredient.class, recipe.getBlockInput(), BlockIngredient::write);
+            writeLazy(buffer, DynamicOutput.class, recipe.getOutput(), DynamicOutput::write);
+            buffer.writeDouble(recipe.getChance());
         }
     }
 }
@@ -1,6 +1,7 @@
 package ky.someone.mods.interactio.recipe;
 
 import com.google.gson.JsonObject;
+import it.unimi.dsi.fastutil.longs.*;
 import ky.someone.mods.interactio.Utils;
 import ky.someone.mods.interactio.Utils.RecipeContinuePredicate;
 import ky.someone.mods.interactio.Utils.RecipeEvent;
@@ -8,10 +9,13 @@ import ky.someone.mods.interactio.Utils.RecipeStartPredicate;
 import ky.someone.mods.interactio.Utils.RecipeTickEvent;
 import ky.someone.mods.interactio.recipe.ingredient.FluidIngredient;
 import ky.someone.mods.interactio.recipe.util.CraftingInfo;
+import ky.someone.mods.interactio.recipe.util.RecipeRandom;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
 import net.minecraft.core.particles.BlockParticleOption;
 import net.minecraft.core.particles.ParticleTypes;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.util.GsonHelper;
 import net.minecraft.util.Mth;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.AnvilBlock;
@@ -20,10 +24,7 @@ import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.block.state.StateHolder;
 import net.minecraft.world.phys.Vec3;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Random;
+import java.util.*;
 
 import static ky.someone.mods.interactio.Utils.isAnvil;
 import static ky.someone.mods.interactio.Utils.parseChance;
@@ -75,15 +76,25 @@ public class Events {
             int numSources = sources.size();
             int consumed = (int) (chance * numSources);
             double remaining = chance * numSources - consumed;
-            if (level.random.nextDouble() < remaining) consumed++;
+            Random random = RecipeRandom.get(level);
+            if (random.nextDouble() < remaining) consumed++;
 
             if (info.getRecipe().getOutput().isBlock() || info.getRecipe().getOutput().isFluid()) {
                 sources.remove(info.getBlockPos());
                 consumed--;
             }
 
+            List<BlockPos> chosen = new ArrayList<>(Math.max(consumed, 0));
             for (; consumed > 0 && sources.size() > 0; consumed--) {
-                level.setBlockAndUpdate(sources.remove(level.random.nextInt(sources.size())), Blocks.AIR.defaultBlockState());
+                // swap the picked source to the end so removing it doesn't shift the whole list
+                Collections.swap(sources, random.nextInt(sources.size()), sources.size() - 1);
+                chosen.add(sources.remove(sources.size() - 1));
+            }
+
+            if (GsonHelper.getAsBoolean(json, "batched", false)) {
+                removeBlocks(level, chosen);
+            } else {
+                chosen.forEach(source -> level.setBlockAndUpdate(source, Blocks.AIR.defaultBlockState()));
             }
         });
 
@@ -95,7 +106,7 @@ public class Events {
         double chance = parseChance(json, "chance");
 
         Level world = info.getWorld();
-        Random rand = world.random;
+        Random rand = RecipeRandom.get(world);
         BlockPos anvilPos;
         if (inputs instanceof BlockPos)
             anvilPos = ((BlockPos) inputs).above();
@@ -117,6 +128,42 @@ public class Events {
         return true;
     }
 
+    /**
+     * Removes all given blocks without any neighbour or shape updates in between,
+     * then notifies every block bordering the removed area exactly once and updates the shapes around it.
+     * This way, removing lots of fluid sources only causes a single wave of fluid updates.
+     */
+    private static void removeBlocks(Level level, List<BlockPos> positions) {
+        if (positions.isEmpty()) return;
+
+        LongSet removed = new LongOpenHashSet(positions.size());
+        for (BlockPos pos : positions) {
+            if (level.setBlock(pos, Blocks.AIR.defaultBlockState(), 2 | 16)) removed.add(pos.asLong());
+        }
+
+        // every position next to the removed area, mapped to one of the removed blocks it borders
+        Long2LongMap border = new Long2LongOpenHashMap();
+        for (LongIterator it = removed.iterator(); it.hasNext(); ) {
+            long pos = it.nextLong();
+            for (Direction dir : Direction.values()) {
+                long neighbour = BlockPos.offset(pos, dir);
+                if (!removed.contains(neighbour)) border.putIfAbsent(neighbour, pos);
+            }
+        }
+
+        for (Long2LongMap.Entry entry : Long2LongMaps.fastIterable(border)) {
+            BlockPos pos = BlockPos.of(entry.getLongKey());
+            level.getBlockState(pos).neighborChanged(level, pos, Blocks.AIR, BlockPos.of(entry.getLongValue()), false);
+        }
+
+        // the shape updates skipped above, same as setBlockAndUpdate would do them afterwards;
+        // these are what makes waterlogged neighbours schedule their fluid tick, plants check whether they survive, etc.
+        BlockState air = Blocks.AIR.defaultBlockState();
+        for (LongIterator it = removed.iterator(); it.hasNext(); ) {
+            air.updateNeighbourShapes(level, BlockPos.of(it.nextLong()), 2);
+        }
+    }
+
     private static void sendParticle(CraftingInfo info) {
         Level world = info.getWorld();
         Vec3 pos = info.getPos();
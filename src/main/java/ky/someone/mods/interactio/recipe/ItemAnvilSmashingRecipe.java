@@ -7,6 +7,7 @@ import ky.someone.mods.interactio.recipe.ingredient.DynamicOutput;
 import ky.someone.mods.interactio.recipe.ingredient.ItemIngredient;
 import ky.someone.mods.interactio.recipe.util.DefaultInfo;
 import net.minecraft.core.NonNullList;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.util.GsonHelper;
 import net.minecraft.world.entity.item.ItemEntity;
@@ -16,6 +17,7 @@ import net.minecraft.world.item.crafting.RecipeType;
 import net.minecraft.world.level.block.state.BlockState;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 import static ky.someone.mods.interactio.Utils.compareStacks;
 import static ky.someone.mods.interactio.Utils.testAll;
@@ -24,14 +26,14 @@ public final class ItemAnvilSmashingRecipe extends InWorldRecipe<List<ItemEntity
 
     public static final Serializer SERIALIZER = new Serializer();
 
-    public ItemAnvilSmashingRecipe(ResourceLocation id, List<ItemIngredient> inputs, DynamicOutput output, JsonObject json) {
+    public ItemAnvilSmashingRecipe(ResourceLocation id, List<ItemIngredient> inputs, Supplier<DynamicOutput> output, JsonObject json) {
         super(id, inputs, null, null, output, true, json);
     }
 
     @Override
     public boolean canCraft(List<ItemEntity> entities, BlockState state, DefaultInfo info) {
         return compareStacks(entities, this.itemInputs)
-                && testAll(this.startCraftConditions, entities, state, info);
+                && testAll(this.startCraftConditions(), entities, state, info);
     }
 
     @Override
@@ -61,12 +63,25 @@ public final class ItemAnvilSmashingRecipe extends InWorldRecipe<List<ItemEntity
 
     public static class Serializer extends InWorldRecipeSerializer<ItemAnvilSmashingRecipe> {
         @Override
-        public ItemAnvilSmashingRecipe fromJson(ResourceLocation id, JsonObject json) {
+        protected ItemAnvilSmashingRecipe parse(ResourceLocation id, JsonObject json) {
             DynamicOutput output = DynamicOutput.create(GsonHelper.getAsJsonObject(json, "output"), "block", "fluid");
 
             List<ItemIngredient> inputs = this.parseItemIngredients(id, json, "inputs");
 
-            return new ItemAnvilSmashingRecipe(id, inputs, output, json);
+            return new ItemAnvilSmashingRecipe(id, inputs, () -> output, json);
+        }
+
+        @Override
+        protected ItemAnvilSmashingRecipe read(ResourceLocation id, FriendlyByteBuf buffer, JsonObject events) {
+            List<ItemIngredient> inputs = readItemIngredients(buffer);
+            Supplier<DynamicOutput> output = readLazy(buffer, DynamicOutput.class, DynamicOutput::read);
+            return new ItemAnvilSmashingRecipe(id, inputs, output, events);
+        }
+
+        @Override
+        protected void write(FriendlyByteBuf buffer, ItemAnvilSmashingRecipe recipe) {
+            writeItemIngredients(buffer, recipe.getItemInputs());
+            writeLazy(buffer, DynamicOutput.class, recipe.getOutput(), DynamicOutput::write);
         }
     }
 }
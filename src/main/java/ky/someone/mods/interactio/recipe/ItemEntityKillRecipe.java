@@ -8,6 +8,7 @@ import ky.someone.mods.interactio.recipe.ingredient.EntityIngredient;
 import ky.someone.mods.interactio.recipe.ingredient.ItemIngredient;
 import ky.someone.mods.interactio.recipe.util.EntityInfo;
 import net.minecraft.core.NonNullList;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.util.GsonHelper;
 import net.minecraft.world.entity.LivingEntity;
@@ -17,6 +18,7 @@ import net.minecraft.world.item.crafting.RecipeSerializer;
 import net.minecraft.world.item.crafting.RecipeType;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 import static ky.someone.mods.interactio.Utils.compareStacks;
 import static ky.someone.mods.interactio.Utils.testAll;
@@ -26,7 +28,7 @@ public final class ItemEntityKillRecipe extends StatelessItemRecipe<EntityInfo>
     public static final Serializer SERIALIZER = new Serializer();
     protected final EntityIngredient entityInput;
 
-    public ItemEntityKillRecipe(ResourceLocation id, List<ItemIngredient> inputs, EntityIngredient entityInput, DynamicOutput output, JsonObject json) {
+    public ItemEntityKillRecipe(ResourceLocation id, List<ItemIngredient> inputs, EntityIngredient entityInput, Supplier<DynamicOutput> output, JsonObject json) {
         super(id, inputs, null, null, output, true, json);
         this.entityInput = entityInput;
     }
@@ -38,7 +40,7 @@ public final class ItemEntityKillRecipe extends StatelessItemRecipe<EntityInfo>
     @Override
     public boolean canCraft(List<ItemEntity> entities, EntityInfo info) {
         return compareStacks(entities, this.itemInputs)
-                && testAll(this.startCraftConditions, entities, null, info);
+                && testAll(this.startCraftConditions(), entities, null, info);
     }
 
     @Override
@@ -68,13 +70,28 @@ public final class ItemEntityKillRecipe extends StatelessItemRecipe<EntityInfo>
 
     public static class Serializer extends InWorldRecipeSerializer<ItemEntityKillRecipe> {
         @Override
-        public ItemEntityKillRecipe fromJson(ResourceLocation id, JsonObject json) {
+        protected ItemEntityKillRecipe parse(ResourceLocation id, JsonObject json) {
             DynamicOutput output = DynamicOutput.create(GsonHelper.getAsJsonObject(json, "output"));
 
             List<ItemIngredient> inputs = this.parseItemIngredients(id, json, "inputs");
             EntityIngredient entityInput = EntityIngredient.deserialize(json);
 
-            return new ItemEntityKillRecipe(id, inputs, entityInput, output, json);
+            return new ItemEntityKillRecipe(id, inputs, entityInput, () -> output, json);
+        }
+
+        @Override
+        protected ItemEntityKillRecipe read(ResourceLocation id, FriendlyByteBuf buffer, JsonObject events) {
+            List<ItemIngredient> inputs = readItemIngredients(buffer);
+            EntityIngredient entityInput = readShared(buffer, EntityIngredient.class, EntityIngredient::read);
+            Supplier<DynamicOutput> output = readLazy(buffer, DynamicOutput.class, DynamicOutput::read);
+            return new ItemEntityKillRecipe(id, inputs, entityInput, output, events);
+        }
+
+        @Override
+        protected void write(FriendlyByteBuf buffer, ItemEntityKillRecipe recipe) {
+            writeItemIngredients(buffer, recipe.getItemInputs());
+            writeShared(buffer, EntityIngredient.class, recipe.entityInput, EntityIngredient::write);
+            writeLazy(buffer, DynamicOutput.class, recipe.getOutput(), DynamicOutput::write);
         }
     }
 }
@@ -7,6 +7,7 @@ import ky.someone.mods.interactio.recipe.ingredient.DynamicOutput;
 import ky.someone.mods.interactio.recipe.ingredient.ItemIngredient;
 import ky.someone.mods.interactio.recipe.util.ExplosionInfo;
 import net.minecraft.core.NonNullList;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.util.GsonHelper;
 import net.minecraft.world.entity.item.ItemEntity;
@@ -15,6 +16,7 @@ import net.minecraft.world.item.crafting.RecipeSerializer;
 import net.minecraft.world.item.crafting.RecipeType;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 import static ky.someone.mods.interactio.Utils.compareStacks;
 import static ky.someone.mods.interactio.Utils.testAll;
@@ -23,14 +25,14 @@ public final class ItemExplosionRecipe extends StatelessItemRecipe<ExplosionInfo
 
     public static final Serializer SERIALIZER = new Serializer();
 
-    public ItemExplosionRecipe(ResourceLocation id, List<ItemIngredient> inputs, DynamicOutput output, JsonObject json) {
+    public ItemExplosionRecipe(ResourceLocation id, List<ItemIngredient> inputs, Supplier<DynamicOutput> output, JsonObject json) {
         super(id, inputs, null, null, output, true, json);
     }
 
     @Override
     public boolean canCraft(List<ItemEntity> entities, ExplosionInfo info) {
         return compareStacks(entities, this.itemInputs)
-                && testAll(this.startCraftConditions, entities, null, info);
+                && testAll(this.startCraftConditions(), entities, null, info);
     }
 
     @Override
@@ -60,12 +62,25 @@ public final class ItemExplosionRecipe extends StatelessItemRecipe<ExplosionInfo
 
     public static class Serializer extends InWorldRecipeSerializer<ItemExplosionRecipe> {
         @Override
-        public ItemExplosionRecipe fromJson(ResourceLocation id, JsonObject json) {
+        protected ItemExplosionRecipe parse(ResourceLocation id, JsonObject json) {
             DynamicOutput output = DynamicOutput.create(GsonHelper.getAsJsonObject(json, "output"));
 
             List<ItemIngredient> inputs = this.parseItemIngredients(id, json, "inputs");
 
-            return new ItemExplosionRecipe(id, inputs, output, json);
+            return new ItemExplosionRecipe(id, inputs, () -> output, json);
+        }
+
+        @Override
+        protected ItemExplosionRecipe read(ResourceLocation id, FriendlyByteBuf buffer, JsonObject events) {
+            List<ItemIngredient> inputs = readItemIngredients(buffer);
+            Supplier<DynamicOutput> output = readLazy(buffer, DynamicOutput.class, DynamicOutput::read);
+            return new ItemExplosionRecipe(id, inputs, output, events);
+        }
+
+        @Override
+        protected void write(FriendlyByteBuf buffer, ItemExplosionRecipe recipe) {
+            writeItemIngredients(buffer, recipe.getItemInputs());
+            writeLazy(buffer, DynamicOutput.class, recipe.getOutput(), DynamicOutput::write);
         }
     }
 }
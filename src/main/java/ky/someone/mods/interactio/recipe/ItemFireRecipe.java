@@ -10,6 +10,7 @@ import ky.someone.mods.interactio.recipe.ingredient.DynamicOutput;
 import ky.someone.mods.interactio.recipe.ingredient.ItemIngredient;
 import ky.someone.mods.interactio.recipe.util.DefaultInfo;
 import net.minecraft.core.NonNullList;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.util.GsonHelper;
 import net.minecraft.world.entity.item.ItemEntity;
@@ -21,6 +22,7 @@ import net.minecraft.world.level.block.state.BlockState;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static ky.someone.mods.interactio.Utils.compareStacks;
 import static ky.someone.mods.interactio.Utils.testAll;
@@ -29,7 +31,7 @@ public class ItemFireRecipe extends DurationRecipe<List<ItemEntity>, BlockState>
 
     public static final Serializer SERIALIZER = new Serializer();
 
-    public ItemFireRecipe(ResourceLocation id, ItemIngredient input, DynamicOutput output, boolean canRunParallel, int duration, JsonObject json) {
+    public ItemFireRecipe(ResourceLocation id, ItemIngredient input, Supplier<DynamicOutput> output, boolean canRunParallel, int duration, JsonObject json) {
         super(id, Collections.singletonList(input), null, null, output, canRunParallel, duration, json);
     }
 
@@ -37,7 +39,7 @@ public class ItemFireRecipe extends DurationRecipe<List<ItemEntity>, BlockState>
     public boolean canCraft(List<ItemEntity> entities, BlockState state, DefaultInfo info) {
         return state.getBlock() instanceof BaseFireBlock
                 && compareStacks(entities, this.itemInputs)
-                && testAll(this.startCraftConditions, entities, state, info);
+                && testAll(this.startCraftConditions(), entities, state, info);
     }
 
     @Override
@@ -67,7 +69,7 @@ public class ItemFireRecipe extends DurationRecipe<List<ItemEntity>, BlockState>
 
     public static class Serializer extends InWorldRecipeSerializer<ItemFireRecipe> {
         @Override
-        public ItemFireRecipe fromJson(ResourceLocation id, JsonObject json) {
+        protected ItemFireRecipe parse(ResourceLocation id, JsonObject json) {
             DynamicOutput output = DynamicOutput.create(GsonHelper.getAsJsonObject(json, "output"), "block", "fluid");
 
             ItemIngredient input = ItemIngredient.deserialize(json.get("input"));
@@ -77,7 +79,24 @@ public class ItemFireRecipe extends DurationRecipe<List<ItemEntity>, BlockState>
             boolean parallel = GsonHelper.getAsBoolean(json, "parallel", true);
             int duration = (int) Utils.getDouble(json, "duration", 0);
 
-            return new ItemFireRecipe(id, input, output, parallel, duration, json);
+            return new ItemFireRecipe(id, input, () -> output, parallel, duration, json);
+        }
+
+        @Override
+        protected ItemFireRecipe read(ResourceLocation id, FriendlyByteBuf buffer, JsonObject events) {
+            ItemIngredient input = readShared(buffer, ItemIngredient.class, ItemIngredient::read);
+            Supplier<DynamicOutput> output = readLazy(buffer, DynamicOutput.class, DynamicOutput::read);
+            boolean parallel = buffer.readBoolean();
+            int duration = buffer.readVarInt();
+            return new ItemFireRecipe(id, input, output, parallel, duration, events);
+        }
+
+        @Override
+        protected void write(FriendlyByteBuf buffer, ItemFireRecipe recipe) {
+            writeShared(buffer, ItemIngredient.class, recipe.getItemInputs().get(0), ItemIngredient::write);
+            writeLazy(buffer, DynamicOutput.class, recipe.getOutput(), DynamicOutput::write);
+            buffer.writeBoolean(recipe.canRunParallel());
+            buffer.writeVarInt(recipe.getDuration());
         }
     }
 }
\ No newline at end of file
@@ -9,6 +9,7 @@ import ky.someone.mods.interactio.recipe.ingredient.FluidIngredient;
 import ky.someone.mods.interactio.recipe.ingredient.ItemIngredient;
 import ky.someone.mods.interactio.recipe.util.DefaultInfo;
 import net.minecraft.core.NonNullList;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.util.GsonHelper;
 import net.minecraft.world.entity.item.ItemEntity;
@@ -18,6 +19,7 @@ import net.minecraft.world.item.crafting.RecipeType;
 import net.minecraft.world.level.material.FluidState;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 import static ky.someone.mods.interactio.Utils.compareStacks;
 import static ky.someone.mods.interactio.Utils.testAll;
@@ -28,16 +30,19 @@ public class ItemFluidRecipe extends DurationRecipe<List<ItemEntity>, FluidState
 
     protected final double consumeFluid;
 
-    public ItemFluidRecipe(ResourceLocation id, List<ItemIngredient> inputs, FluidIngredient fluid, DynamicOutput output, boolean canRunParallel, double consumeFluid, int duration, JsonObject json) {
+    public ItemFluidRecipe(ResourceLocation id, List<ItemIngredient> inputs, FluidIngredient fluid, Supplier<DynamicOutput> output, boolean canRunParallel, double consumeFluid, int duration, JsonObject json) {
         super(id, inputs, null, fluid, output, canRunParallel, duration, json);
         this.consumeFluid = consumeFluid;
     }
 
     @Override
     public boolean canCraft(List<ItemEntity> entities, FluidState state, DefaultInfo info) {
-        return this.fluidInput.test(info.getWorld(), info.getBlockPos())
+        // the tracked state is current for this tick, so there's no need to look it up again;
+        // counting connected sources is the most expensive part, so leave that until the items match
+        return this.fluidInput.test(state.getType())
                 && compareStacks(entities, this.itemInputs)
-                && testAll(this.startCraftConditions, entities, state, info);
+                && this.fluidInput.hasConnectedSources(info.getWorld(), info.getBlockPos())
+                && testAll(this.startCraftConditions(), entities, state, info);
     }
 
     @Override
@@ -71,7 +76,7 @@ public class ItemFluidRecipe extends DurationRecipe<List<ItemEntity>, FluidState
 
     public static class Serializer extends InWorldRecipeSerializer<ItemFluidRecipe> {
         @Override
-        public ItemFluidRecipe fromJson(ResourceLocation id, JsonObject json) {
+        protected ItemFluidRecipe parse(ResourceLocation id, JsonObject json) {
             DynamicOutput output = DynamicOutput.create(GsonHelper.getAsJsonObject(json, "output"));
             FluidIngredient fluid = FluidIngredient.deserialize(json.get("fluid"));
 
@@ -82,7 +87,28 @@ public class ItemFluidRecipe extends DurationRecipe<List<ItemEntity>, FluidState
             boolean parallel = GsonHelper.getAsBoolean(json, "parallel", false);
             int duration = (int) Utils.getDouble(json, "duration", 0);
 
-            return new ItemFluidRecipe(id, inputs, fluid, output, parallel, consumeFluid, duration, json);
+            return new ItemFluidRecipe(id, inputs, fluid, () -> output, parallel, consumeFluid, duration, json);
+        }
+
+        @Override
+        protected ItemFluidRecipe read(ResourceLocation id, FriendlyByteBuf buffer, JsonObject events) {
+            List<ItemIngredient> inputs = readItemIngredients(buffer);
+            FluidIngredient fluid = readShared(buffer, FluidIngredient.class, FluidIngredient::read);
+            Supplier<DynamicOutput> output = readLazy(buffer, DynamicOutput.class, DynamicOutput::read);
+            boolean parallel = buffer.readBoolean();
+            double consumeFluid = buffer.readDouble();
+            int duration = buffer.readVarInt();
+            return new ItemFluidRecipe(id, inputs, fluid, output, parallel, consumeFluid, duration, events);
+        }
+
+        @Override
+        protected void write(FriendlyByteBuf buffer, ItemFluidRecipe recipe) {
+            writeItemIngredients(buffer, recipe.getItemInputs());
+            writeShared(buffer, FluidIngredient.class, recipe.getFluidInput(), FluidIngredient::write);
+            writeLazy(buffer, DynamicOutput.class, recipe.getOutput(), DynamicOutput::write);
+            buffer.writeBoolean(recipe.canRunParallel());
+            buffer.writeDouble(recipe.getConsumeFluid());
+            buffer.writeVarInt(recipe.getDuration());
         }
     }
 }
\ No newline at end of file
@@ -6,18 +6,20 @@ import ky.someone.mods.interactio.recipe.base.StatelessItemRecipe;
 import ky.someone.mods.interactio.recipe.ingredient.DynamicOutput;
 import ky.someone.mods.interactio.recipe.ingredient.ItemIngredient;
 import ky.someone.mods.interactio.recipe.util.DefaultInfo;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.util.GsonHelper;
 import net.minecraft.world.item.crafting.RecipeSerializer;
 import net.minecraft.world.item.crafting.RecipeType;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 public final class ItemLightningRecipe extends StatelessItemRecipe<DefaultInfo> {
 
     public static final Serializer SERIALIZER = new Serializer();
 
-    public ItemLightningRecipe(ResourceLocation id, List<ItemIngredient> inputs, DynamicOutput output, JsonObject json) {
+    public ItemLightningRecipe(ResourceLocation id, List<ItemIngredient> inputs, Supplier<DynamicOutput> output, JsonObject json) {
         super(id, inputs, null, null, output, true, json);
     }
 
@@ -38,11 +40,24 @@ public final class ItemLightningRecipe extends StatelessItemRecipe<DefaultInfo>
 
     public static class Serializer extends InWorldRecipeSerializer<ItemLightningRecipe> {
         @Override
-        public ItemLightningRecipe fromJson(ResourceLocation id, JsonObject json) {
+        protected ItemLightningRecipe parse(ResourceLocation id, JsonObject json) {
             DynamicOutput output = DynamicOutput.create(GsonHelper.getAsJsonObject(json, "output"));
             List<ItemIngredient> inputs = this.parseItemIngredients(id, json, "inputs");
 
-            return new ItemLightningRecipe(id, inputs, output, json);
+            return new ItemLightningRecipe(id, inputs, () -> output, json);
+        }
+
+        @Override
+        protected ItemLightningRecipe read(ResourceLocation id, FriendlyByteBuf buffer, JsonObject events) {
+            List<ItemIngredient> inputs = readItemIngredients(buffer);
+            Supplier<DynamicOutput> output = readLazy(buffer, DynamicOutput.class, DynamicOutput::read);
+            return new ItemLightningRecipe(id, inputs, output, events);
+        }
+
+        @Override
+        protected void write(FriendlyByteBuf buffer, ItemLightningRecipe recipe) {
+            writeItemIngredients(buffer, recipe.getItemInputs());
+            writeLazy(buffer, DynamicOutput.class, recipe.getOutput(), DynamicOutput::write);
         }
     }
 }
@@ -18,23 +18,22 @@ import net.minecraft.world.level.block.state.StateHolder;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import static ky.someone.mods.interactio.Utils.runAll;
 
 public abstract class DurationRecipe<T, S extends StateHolder<?, ?>> extends InWorldRecipe<T, S, DefaultInfo> {
 
-    protected Map<RecipeTickEvent<T, S>, JsonObject> tickConsumers;
+    protected final Map<RecipeTickEvent<T, S>, JsonObject> tickConsumers = new HashMap<>();
     protected final int duration;
 
-    public DurationRecipe(ResourceLocation id, List<ItemIngredient> itemInputs, BlockIngredient blockInput, FluidIngredient fluidInput, DynamicOutput output, boolean canRunParallel, int duration, JsonObject json) {
+    public DurationRecipe(ResourceLocation id, List<ItemIngredient> itemInputs, BlockIngredient blockInput, FluidIngredient fluidInput, Supplier<DynamicOutput> output, boolean canRunParallel, int duration, JsonObject json) {
         super(id, itemInputs, blockInput, fluidInput, output, canRunParallel, json);
         this.duration = duration;
-        this.tickConsumers = new HashMap<>();
-
-        this.parseTickEvents();
     }
 
     public void tick(T input, S state, DefaultInfo info) {
+        ensureEventsParsed();
         runAll(this.tickConsumers, input, state, info);
     }
 
@@ -46,6 +45,12 @@ public abstract class DurationRecipe<T, S extends StateHolder<?, ?>> extends InW
         return duration > this.duration;
     }
 
+    @Override
+    protected void parseEvents() {
+        super.parseEvents();
+        this.parseTickEvents();
+    }
+
     @SuppressWarnings("unchecked")
     private void parseTickEvents() {
         if (!json.has(EventType.TICK.jsonName)) return;
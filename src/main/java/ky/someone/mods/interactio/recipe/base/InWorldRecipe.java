@@ -1,20 +1,27 @@
 package ky.someone.mods.interactio.recipe.base;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.MapMaker;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import ky.someone.mods.interactio.InteractioConfig;
 import ky.someone.mods.interactio.Utils.*;
 import ky.someone.mods.interactio.recipe.Events;
 import ky.someone.mods.interactio.recipe.Events.EventType;
 import ky.someone.mods.interactio.recipe.ingredient.BlockIngredient;
 import ky.someone.mods.interactio.recipe.ingredient.DynamicOutput;
+import ky.someone.mods.interactio.recipe.ingredient.EntityIngredient;
 import ky.someone.mods.interactio.recipe.ingredient.FluidIngredient;
 import ky.someone.mods.interactio.recipe.ingredient.ItemIngredient;
+import ky.someone.mods.interactio.recipe.limit.CraftRateLimiter;
+import ky.someone.mods.interactio.recipe.util.BinaryJson;
 import ky.someone.mods.interactio.recipe.util.CraftingInfo;
+import ky.someone.mods.interactio.recipe.util.SyncDictionary;
 import net.minecraft.core.BlockPos;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.resources.ResourceLocation;
@@ -27,12 +34,15 @@ import net.minecraft.world.item.crafting.RecipeManager;
 import net.minecraft.world.item.crafting.RecipeSerializer;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.state.StateHolder;
+import net.minecraftforge.common.util.Lazy;
 import net.minecraftforge.registries.ForgeRegistryEntry;
 
 import javax.annotation.Nullable;
-import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 import static ky.someone.mods.interactio.Utils.*;
 
@@ -43,6 +53,10 @@ import static ky.someone.mods.interactio.Utils.*;
  */
 public abstract class InWorldRecipe<T, S extends StateHolder<?, ?>, U extends CraftingInfo> implements Recipe<Container> {
 
+    /**
+     * Only the event configs of this recipe's JSON, everything else is compiled into fields at load time
+     * and the rest of the source tree is not retained.
+     */
     protected final JsonObject json;
 
     /**
@@ -75,12 +89,18 @@ public abstract class InWorldRecipe<T, S extends StateHolder<?, ?>, U extends Cr
     protected final List<ItemIngredient> itemInputs;
     protected final BlockIngredient blockInput;
     protected final FluidIngredient fluidInput;
-    protected final DynamicOutput output;
+    // recipes received from the server only decode their output once it's first needed, see InWorldRecipeSerializer#readLazy
+    private final Supplier<DynamicOutput> output;
+    protected final boolean canRunParallel;
+
+    // likewise, events are only parsed the first time they're needed, which on clients is usually never
+    private volatile boolean eventsParsed = false;
 
-    public InWorldRecipe(ResourceLocation id, @Nullable List<ItemIngredient> itemInputs, @Nullable BlockIngredient blockInput, @Nullable FluidIngredient fluidInput, DynamicOutput output, boolean canRunParallel, JsonObject json) {
+    public InWorldRecipe(ResourceLocation id, @Nullable List<ItemIngredient> itemInputs, @Nullable BlockIngredient blockInput, @Nullable FluidIngredient fluidInput, Supplier<DynamicOutput> output, boolean canRunParallel, JsonObject json) {
         this.id = id;
-        this.output = output;
-        this.json = json;
+        this.output = Lazy.concurrentOf(output);
+        this.canRunParallel = canRunParallel;
+        this.json = eventsOnly(json);
 
         this.itemInputs = itemInputs == null ? Collections.emptyList() : itemInputs;
         this.blockInput = blockInput == null ? BlockIngredient.EMPTY : blockInput;
@@ -94,8 +114,6 @@ public abstract class InWorldRecipe<T, S extends StateHolder<?, ?>, U extends Cr
         this.onCraftEnd = new HashMap<>();
 
         this.keepCraftingConditions.put((t, u, j) -> canRunParallel, null);
-
-        this.parseEvents();
     }
 
     /**
@@ -191,22 +209,202 @@ public abstract class InWorldRecipe<T, S extends StateHolder<?, ?>, U extends Cr
     }
 
     public DynamicOutput getOutput() {
-        return this.output;
+        return this.output.get();
+    }
+
+    public boolean canRunParallel() {
+        return this.canRunParallel;
     }
 
+    /**
+     * @return A JSON object holding only the event configs of this recipe, see {@link EventType}
+     */
     public JsonObject getJson() {
         return this.json;
     }
 
+    private static JsonObject eventsOnly(JsonObject json) {
+        JsonObject events = new JsonObject();
+        for (EventType type : EventType.values()) {
+            if (json.has(type.jsonName)) events.add(type.jsonName, json.get(type.jsonName));
+        }
+        return events.size() == json.size() ? json : events;
+    }
+
     public static abstract class InWorldRecipeSerializer<R extends InWorldRecipe<?, ?, ?>> extends ForgeRegistryEntry<RecipeSerializer<?>> implements RecipeSerializer<R> {
+        // one dictionary per buffer a packet is written to or read from, compared by identity
+        private final Map<FriendlyByteBuf, SyncDictionary> dictionaries = new MapMaker().weakKeys().makeMap();
+
+        // buffers of the recipe cache, which hold the cached forms of ingredients instead of their network forms, see toCache
+        private static final Set<FriendlyByteBuf> cacheBuffers = Collections.newSetFromMap(new MapMaker().weakKeys().makeMap());
+        private static final Map<Class<?>, CachedForm<?>> cachedForms = new HashMap<>();
+
+        static {
+            cachedForm(ItemIngredient.class, ItemIngredient::deserialize, ItemIngredient::serialize);
+            cachedForm(BlockIngredient.class, BlockIngredient::deserialize, BlockIngredient::serialize);
+            cachedForm(EntityIngredient.class, EntityIngredient::deserialize, EntityIngredient::serialize);
+            cachedForm(FluidIngredient.class, FluidIngredient::deserialize, FluidIngredient::serialize);
+        }
+
+        private static <T> void cachedForm(Class<T> kind, Function<JsonElement, T> reader, Function<T, JsonElement> writer) {
+            cachedForms.put(kind, new CachedForm<>(reader, writer));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public final R fromJson(ResourceLocation id, JsonObject json) {
+            RecipePreParser.Result result = RecipePreParser.take(id, json);
+            return result == null ? parse(id, json) : (R) result.get();
+        }
+
+        /**
+         * Parses a recipe from its JSON. May be called from several threads at once during a reload,
+         * see {@link RecipePreParser}, so this should not touch any shared state.
+         */
+        protected abstract R parse(ResourceLocation id, JsonObject json);
+
         @Override
         public R fromNetwork(ResourceLocation id, FriendlyByteBuf buffer) {
-            return fromJson(id, GsonHelper.parse(new String(buffer.readByteArray(), StandardCharsets.UTF_8)));
+            SyncDictionary dictionary = dictionaries.computeIfAbsent(buffer, buf -> new SyncDictionary(buf.readBoolean()));
+            JsonObject events = dictionary.read(buffer, JsonObject.class, InWorldRecipeSerializer::readEvents);
+            return read(id, buffer, events);
         }
 
         @Override
         public void toNetwork(FriendlyByteBuf buffer, R recipe) {
-            buffer.writeByteArray(recipe.json.toString().getBytes(StandardCharsets.UTF_8));
+            SyncDictionary dictionary = dictionaries.computeIfAbsent(buffer, buf -> {
+                // recipes may also be written to the recipe cache before server configs are loaded
+                boolean enabled = !InteractioConfig.SPEC.isLoaded() || InteractioConfig.DEDUPLICATE_SYNC.get();
+                buf.writeBoolean(enabled);
+                return new SyncDictionary(enabled);
+            });
+            dictionary.write(buffer, JsonObject.class, recipe.json, InWorldRecipeSerializer::writeEvents);
+            write(buffer, recipe);
+        }
+
+        /**
+         * Like {@link #fromNetwork(ResourceLocation, FriendlyByteBuf)}, but for recipes written using {@link #toCache(FriendlyByteBuf, InWorldRecipe)}.
+         */
+        public R fromCache(ResourceLocation id, FriendlyByteBuf buffer) {
+            cacheBuffers.add(buffer);
+            return fromNetwork(id, buffer);
+        }
+
+        /**
+         * Like {@link #toNetwork(FriendlyByteBuf, InWorldRecipe)}, but meant for the recipe cache rather than clients:
+         * ingredients are written in their JSON forms, which (unlike their network forms) keep tags as tags,
+         * so that cached recipes end up the same as freshly parsed ones.
+         */
+        public void toCache(FriendlyByteBuf buffer, R recipe) {
+            cacheBuffers.add(buffer);
+            toNetwork(buffer, recipe);
+        }
+
+        /**
+         * Reads everything but the event configs of a recipe from the network, see {@link #write(FriendlyByteBuf, InWorldRecipe)}.
+         * Ingredients should be read using {@link #readShared(FriendlyByteBuf, Class, Function)},
+         * and outputs using {@link #readLazy(FriendlyByteBuf, Class, Function)}.
+         *
+         * @param events A JSON object holding only the recipe's event configs, to be passed to the recipe in place of its full JSON
+         */
+        protected abstract R read(ResourceLocation id, FriendlyByteBuf buffer, JsonObject events);
+
+        /**
+         * Writes everything but the event configs of a recipe to the network,
+         * using the binary forms of its ingredients and outputs.
+         * These should be written using {@link #writeShared(FriendlyByteBuf, Class, Object, BiConsumer)}
+         * or {@link #writeLazy(FriendlyByteBuf, Class, Object, BiConsumer)}, so recipes of the same type can share them.
+         */
+        protected abstract void write(FriendlyByteBuf buffer, R recipe);
+
+        protected <T> T readShared(FriendlyByteBuf buffer, Class<? super T> kind, Function<FriendlyByteBuf, T> reader) {
+            return dictionaries.get(buffer).read(buffer, kind, cachedReader(buffer, kind, reader));
+        }
+
+        protected <T> void writeShared(FriendlyByteBuf buffer, Class<? super T> kind, T value, BiConsumer<T, FriendlyByteBuf> writer) {
+            dictionaries.get(buffer).write(buffer, kind, value, cachedWriter(buffer, kind, writer));
+        }
+
+        /**
+         * Like {@link #readShared(FriendlyByteBuf, Class, Function)}, but only decodes the entry once it's first needed.
+         * Meant for parts of a recipe that are expensive to build and not needed right away, like its output.
+         */
+        protected <T> Supplier<T> readLazy(FriendlyByteBuf buffer, Class<? super T> kind, Function<FriendlyByteBuf, T> reader) {
+            return dictionaries.get(buffer).readLazy(buffer, kind, cachedReader(buffer, kind, reader));
+        }
+
+        protected <T> void writeLazy(FriendlyByteBuf buffer, Class<? super T> kind, T value, BiConsumer<T, FriendlyByteBuf> writer) {
+            dictionaries.get(buffer).writeLazy(buffer, kind, value, cachedWriter(buffer, kind, writer));
+        }
+
+        /**
+         * @return The reader for the cached form of the given kind if the buffer belongs to the recipe cache, otherwise the given reader
+         */
+        @SuppressWarnings("unchecked")
+        private static <T> Function<FriendlyByteBuf, T> cachedReader(FriendlyByteBuf buffer, Class<? super T> kind, Function<FriendlyByteBuf, T> reader) {
+            CachedForm<T> form = (CachedForm<T>) cachedForms.get(kind);
+            if (form == null || !cacheBuffers.contains(buffer)) return reader;
+            return buf -> form.reader.apply(BinaryJson.read(buf));
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> BiConsumer<T, FriendlyByteBuf> cachedWriter(FriendlyByteBuf buffer, Class<? super T> kind, BiConsumer<T, FriendlyByteBuf> writer) {
+            CachedForm<T> form = (CachedForm<T>) cachedForms.get(kind);
+            if (form == null || !cacheBuffers.contains(buffer)) return writer;
+            return (value, buf) -> BinaryJson.write(buf, form.writer.apply(value));
+        }
+
+        protected List<ItemIngredient> readItemIngredients(FriendlyByteBuf buffer) {
+            Function<FriendlyByteBuf, ItemIngredient> reader = cachedReader(buffer, ItemIngredient.class, ItemIngredient::read);
+            return readShared(buffer, List.class, buf -> {
+                int size = buf.readVarInt();
+                List<ItemIngredient> inputs = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    inputs.add(reader.apply(buf));
+                }
+                return inputs;
+            });
+        }
+
+        protected void writeItemIngredients(FriendlyByteBuf buffer, List<ItemIngredient> inputs) {
+            BiConsumer<ItemIngredient, FriendlyByteBuf> writer = cachedWriter(buffer, ItemIngredient.class, ItemIngredient::write);
+            writeShared(buffer, List.class, inputs, (list, buf) -> {
+                buf.writeVarInt(list.size());
+                list.forEach(input -> writer.accept(input, buf));
+            });
+        }
+
+        private static JsonObject readEvents(FriendlyByteBuf buffer) {
+            JsonObject events = new JsonObject();
+            EventType[] types = EventType.values();
+            int size = buffer.readVarInt();
+            for (int i = 0; i < size; i++) {
+                EventType type = types[buffer.readByte()];
+                events.add(type.jsonName, BinaryJson.read(buffer));
+            }
+            return events;
+        }
+
+        private static void writeEvents(JsonObject json, FriendlyByteBuf buffer) {
+            List<EventType> present = new ArrayList<>();
+            for (EventType type : EventType.values()) {
+                if (json.has(type.jsonName)) present.add(type);
+            }
+            buffer.writeVarInt(present.size());
+            for (EventType type : present) {
+                buffer.writeByte(type.ordinal());
+                BinaryJson.write(buffer, json.get(type.jsonName));
+            }
+        }
+
+        private static final class CachedForm<T> {
+            final Function<JsonElement, T> reader;
+            final Function<T, JsonElement> writer;
+
+            CachedForm(Function<JsonElement, T> reader, Function<T, JsonElement> writer) {
+                this.reader = reader;
+                this.writer = writer;
+            }
         }
 
         protected List<ItemIngredient> parseItemIngredients(ResourceLocation id, JsonObject json, String key) {
@@ -222,8 +420,50 @@ public abstract class InWorldRecipe<T, S extends StateHolder<?, ?>, U extends Cr
         }
     }
 
+    protected Map<RecipeStartPredicate<T, S, U>, JsonObject> startCraftConditions() {
+        ensureEventsParsed();
+        return this.startCraftConditions;
+    }
+
+    protected Map<RecipeContinuePredicate<T, U>, JsonObject> keepCraftingConditions() {
+        ensureEventsParsed();
+        return this.keepCraftingConditions;
+    }
+
+    protected Map<RecipeEvent<T, U>, JsonObject> onCraftStart() {
+        ensureEventsParsed();
+        return this.onCraftStart;
+    }
+
+    protected Map<RecipeEvent<T, U>, JsonObject> preCraft() {
+        ensureEventsParsed();
+        return this.preCraft;
+    }
+
+    protected Map<RecipeEvent<T, U>, JsonObject> postCraft() {
+        ensureEventsParsed();
+        return this.postCraft;
+    }
+
+    protected Map<RecipeEvent<T, U>, JsonObject> onCraftEnd() {
+        ensureEventsParsed();
+        return this.onCraftEnd;
+    }
+
+    protected final void ensureEventsParsed() {
+        if (eventsParsed) return;
+        synchronized (this) {
+            if (eventsParsed) return;
+            this.parseEvents();
+            eventsParsed = true;
+        }
+    }
+
+    /**
+     * Adds all events from this recipe's JSON to the event maps. Only called once, the first time any of them are accessed.
+     */
     @SuppressWarnings("unchecked")
-    private void parseEvents() {
+    protected void parseEvents() {
         for (EventType eventType : EventType.normalEvents()) {
             if (!json.has(eventType.jsonName)) continue;
             JsonArray array = GsonHelper.getAsJsonArray(json, eventType.jsonName);
@@ -266,35 +506,65 @@ public abstract class InWorldRecipe<T, S extends StateHolder<?, ?>, U extends Cr
     }
 
     public static <S extends StateHolder<?, ?>, I extends CraftingInfo> void craftItemList(InWorldRecipe<List<ItemEntity>, S, I> recipe, List<ItemEntity> inputs, I info) {
+        List<ItemEntity> loopingEntities = Lists.newCopyOnWriteArrayList(inputs);
+
+        runAll(recipe.onCraftStart(), loopingEntities, info);
+        craftItemLoop(recipe, loopingEntities, info);
+    }
+
+    private static <S extends StateHolder<?, ?>, I extends CraftingInfo> void craftItemLoop(InWorldRecipe<List<ItemEntity>, S, I> recipe, List<ItemEntity> loopingEntities, I info) {
         Level world = info.getWorld();
         BlockPos pos = info.getBlockPos();
 
         Object2IntMap<ItemEntity> used = new Object2IntOpenHashMap<>();
+        // entities shrunk during this craft, synced to clients once all iterations are done
+        Set<ItemEntity> touched = new ReferenceOpenHashSet<>();
 
-        List<ItemEntity> loopingEntities = Lists.newCopyOnWriteArrayList(inputs);
+        // without any per-craft events, nothing can observe the outputs in between, so they can all be spawned at once
+        boolean batchOutputs = recipe.preCraft().isEmpty() && recipe.postCraft().isEmpty();
+        int pendingOutputs = 0;
 
-        runAll(recipe.onCraftStart, loopingEntities, info);
         compareStacks(loopingEntities, used, recipe.itemInputs);
         do {
-            runAll(recipe.preCraft, loopingEntities, info);
-            shrinkAndUpdate(used);
-            recipe.output.spawn(world, pos, recipe.hasInvulnerableOutput());
-            runAll(recipe.postCraft, loopingEntities, info);
+            if (!CraftRateLimiter.tryAcquire(world, pos, recipe.getType())) {
+                recipe.getOutput().spawn(world, pos, recipe.hasInvulnerableOutput(), pendingOutputs);
+                syncShrunk(touched);
+                CraftRateLimiter.defer(world, pos, recipe.getType(), () -> resumeItemLoop(recipe, loopingEntities, info));
+                return;
+            }
+
+            runAll(recipe.preCraft(), loopingEntities, info);
+            shrinkInPlace(used, touched);
+            if (batchOutputs) pendingOutputs++;
+            else recipe.getOutput().spawn(world, pos, recipe.hasInvulnerableOutput());
+            runAll(recipe.postCraft(), loopingEntities, info);
 
             loopingEntities.removeIf(((Predicate<ItemEntity>) ItemEntity::isAlive).negate());
             used.clear();
         }
-        while (compareStacks(loopingEntities, used, recipe.itemInputs) && testAll(recipe.keepCraftingConditions, loopingEntities, info));
-        runAll(recipe.onCraftEnd, loopingEntities, info);
+        while (compareStacks(loopingEntities, used, recipe.itemInputs) && testAll(recipe.keepCraftingConditions(), loopingEntities, info));
+        recipe.getOutput().spawn(world, pos, recipe.hasInvulnerableOutput(), pendingOutputs);
+        syncShrunk(touched);
+        runAll(recipe.onCraftEnd(), loopingEntities, info);
+    }
+
+    // continue crafts postponed by the rate limiter, as long as the inputs are still around and the recipe may still continue
+    private static <S extends StateHolder<?, ?>, I extends CraftingInfo> void resumeItemLoop(InWorldRecipe<List<ItemEntity>, S, I> recipe, List<ItemEntity> loopingEntities, I info) {
+        loopingEntities.removeIf(((Predicate<ItemEntity>) ItemEntity::isAlive).negate());
+        if (compareStacks(loopingEntities, recipe.itemInputs) && testAll(recipe.keepCraftingConditions(), loopingEntities, info)) {
+            craftItemLoop(recipe, loopingEntities, info);
+        } else {
+            runAll(recipe.onCraftEnd(), loopingEntities, info);
+        }
     }
 
     public static <S extends StateHolder<?, ?>, I extends CraftingInfo> void craftBlock(InWorldRecipe<BlockPos, S, I> recipe, BlockPos input, I info) {
         Level world = info.getWorld();
         BlockPos pos = info.getBlockPos();
 
-        runAll(recipe.preCraft, pos, info);
+        runAll(recipe.preCraft(), pos, info);
         world.destroyBlock(pos, false);
-        recipe.output.spawn(world, pos, recipe.hasInvulnerableOutput());
-        runAll(recipe.postCraft, pos, info);
+        recipe.getOutput().spawn(world, pos, recipe.hasInvulnerableOutput());
+        runAll(recipe.postCraft(), pos, info);
     }
 }
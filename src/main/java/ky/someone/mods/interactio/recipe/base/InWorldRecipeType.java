@@ -1,17 +1,24 @@
 package ky.someone.mods.interactio.recipe.base;
 
 import com.google.common.collect.ImmutableList;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import ky.someone.mods.interactio.Interactio;
 import ky.someone.mods.interactio.recipe.*;
+import ky.someone.mods.interactio.recipe.ingredient.RecipeInterner;
+import net.minecraft.Util;
 import net.minecraft.core.NonNullList;
 import net.minecraft.core.Registry;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.crafting.*;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
 import net.minecraftforge.registries.DeferredRegister;
 import net.minecraftforge.registries.ForgeRegistries;
 
+import javax.annotation.Nullable;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -45,15 +52,38 @@ public class InWorldRecipeType<T extends InWorldRecipe<?, ?, ?>> implements Reci
         SERIALIZERS.register(MOD_BUS);
     }
 
-    public static void clearCache() {
-        types.forEach(type -> {
-            type.cachedRecipes = null;
-            type.cachedInputs = null;
-        });
+    public static Collection<InWorldRecipeType<?>> all() {
+        return Collections.unmodifiableCollection(types);
+    }
+
+    // bumped on every reload, so anything derived from recipes can tell whether it is still up to date
+    private static volatile int generation = 0;
+
+    /**
+     * @return The current reload generation, see {@link Snapshot#generation}
+     */
+    public static int generation() {
+        return generation;
+    }
+
+    /**
+     * Starts a new reload generation, and builds snapshots of the recipes from the given recipe manager
+     * for all types in the background. Until they're done, the previous snapshots are still used.
+     */
+    public static void clearCache(RecipeManager manager) {
+        int next;
+        synchronized (InWorldRecipeType.class) {
+            next = ++generation;
+        }
+        types.forEach(type -> type.warmUp(manager, next));
+        RecipeInterner.clear();
     }
 
-    private List<T> cachedRecipes = null;
-    private Ingredient cachedInputs = null;
+    @Nullable
+    private volatile Snapshot<T> snapshot = null;
+    // the snapshot being built for the latest generation, if any
+    @Nullable
+    private volatile CompletableFuture<Snapshot<T>> pending = null;
 
     public final ResourceLocation registryName;
     public final RecipeSerializer<T> serializer;
@@ -70,34 +100,75 @@ public class InWorldRecipeType<T extends InWorldRecipe<?, ?, ?>> implements Reci
         return registryName.toString();
     }
 
-    public List<T> getRecipes() {
-        if (cachedRecipes == null) {
-            RecipeManager manager = PROXY.getRecipeManager();
-            if (manager == null) return Collections.emptyList();
+    private void warmUp(RecipeManager manager, int generation) {
+        CompletableFuture<Snapshot<T>> future = CompletableFuture.supplyAsync(() -> new Snapshot<>(this, manager, generation), Util.backgroundExecutor());
+        pending = future;
+        future.whenComplete((built, error) -> {
+            if (error != null) {
+                LOGGER.error("Could not build recipe snapshot for type {}!", this, error);
+            } else {
+                publish(built);
+            }
+        });
+    }
 
-            cachedRecipes = ImmutableList.copyOf(manager.getAllRecipesFor(this));
-            LOGGER.debug("Fetched {} recipes for type {}!", cachedRecipes.size(), this);
+    private synchronized Snapshot<T> publish(Snapshot<T> built) {
+        Snapshot<T> current = snapshot;
+        // a newer reload may have been published in the meantime, in which case this snapshot is outdated already
+        if (current != null && current.generation >= built.generation) return current;
+        snapshot = built;
+        return built;
+    }
+
+    /**
+     * @return An immutable snapshot of all recipes of this type, and everything derived from them
+     */
+    public Snapshot<T> getSnapshot() {
+        Snapshot<T> current = snapshot;
+        if (current != null) return current;
+
+        CompletableFuture<Snapshot<T>> future = pending;
+        if (future != null) {
+            // nothing to fall back to yet, so wait for the snapshot that is already being built
+            try {
+                return future.join();
+            } catch (RuntimeException e) {
+                // already logged by warmUp, build it right here instead
+            }
         }
-        return cachedRecipes;
+
+        RecipeManager manager = PROXY.getRecipeManager();
+        if (manager == null) return Snapshot.empty();
+        return publish(new Snapshot<>(this, manager, generation));
+    }
+
+    public List<T> getRecipes() {
+        return getSnapshot().recipes;
     }
 
     public Ingredient getValidInputs() {
-        if (cachedInputs == null) {
-            cachedInputs = Ingredient.merge(
-                    stream()
-                            .map(Recipe::getIngredients)
-                            .flatMap(NonNullList::stream)
-                            .collect(Collectors.toSet())
-            );
-            LOGGER.debug("Fetched all valid recipe inputs for type {}!", this);
-        }
-        return cachedInputs;
+        return getSnapshot().inputs;
     }
 
     public boolean isValidInput(ItemStack stack) {
         return getValidInputs().test(stack);
     }
 
+    public boolean hasRecipes() {
+        return !getRecipes().isEmpty();
+    }
+
+    /**
+     * @return All blocks accepted as a block input by any recipe of this type. Empty for types without block inputs.
+     */
+    public Set<Block> getValidBlocks() {
+        return getSnapshot().blocks;
+    }
+
+    public boolean isValidBlock(BlockState state) {
+        return getValidBlocks().contains(state.getBlock());
+    }
+
     public Stream<T> stream() {
         return getRecipes().stream();
     }
@@ -114,4 +185,53 @@ public class InWorldRecipeType<T extends InWorldRecipe<?, ?, ?>> implements Reci
         stream().filter(predicate).forEach(callback);
     }
 
+    /**
+     * All recipes of a type along with everything derived from them, built in one go so it can be published as a whole.
+     * Snapshots are never modified after they're built, so they can be shared freely between threads.
+     */
+    public static final class Snapshot<T extends InWorldRecipe<?, ?, ?>> {
+        private static final Snapshot<?> EMPTY = new Snapshot<>(Collections.emptyList(), Ingredient.EMPTY, Collections.emptySet(), -1);
+
+        public final List<T> recipes;
+        public final Ingredient inputs;
+        public final Set<Block> blocks;
+        /**
+         * The reload generation this snapshot was built for, see {@link InWorldRecipeType#generation()}
+         */
+        public final int generation;
+
+        private Snapshot(List<T> recipes, Ingredient inputs, Set<Block> blocks, int generation) {
+            this.recipes = recipes;
+            this.inputs = inputs;
+            this.blocks = blocks;
+            this.generation = generation;
+        }
+
+        private Snapshot(InWorldRecipeType<T> type, RecipeManager manager, int generation) {
+            this.generation = generation;
+            this.recipes = ImmutableList.copyOf(manager.getAllRecipesFor(type));
+            LOGGER.debug("Fetched {} recipes for type {}!", recipes.size(), type);
+
+            this.inputs = Ingredient.merge(
+                    recipes.stream()
+                            .map(Recipe::getIngredients)
+                            .flatMap(NonNullList::stream)
+                            .collect(Collectors.toSet())
+            );
+            // resolve the merged ingredient's items now, rather than on the first test
+            this.inputs.getItems();
+            LOGGER.debug("Fetched all valid recipe inputs for type {}!", type);
+
+            Set<Block> blocks = new ReferenceOpenHashSet<>();
+            recipes.forEach(recipe -> blocks.addAll(recipe.getBlockInput().getMatching()));
+            this.blocks = Collections.unmodifiableSet(blocks);
+            LOGGER.debug("Fetched all valid block inputs for type {}!", type);
+        }
+
+        @SuppressWarnings("unchecked")
+        static <T extends InWorldRecipe<?, ?, ?>> Snapshot<T> empty() {
+            return (Snapshot<T>) EMPTY;
+        }
+    }
+
 }
@@ -0,0 +1,160 @@
+package ky.someone.mods.interactio.recipe.base;
+
+import com.google.gson.JsonObject;
+import io.netty.buffer.Unpooled;
+import ky.someone.mods.interactio.recipe.base.InWorldRecipe.InWorldRecipeSerializer;
+import net.minecraft.Util;
+import net.minecraft.core.Registry;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.SerializationTags;
+import net.minecraft.tags.TagCollection;
+import net.minecraftforge.fml.ModList;
+import net.minecraftforge.fml.loading.FMLPaths;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static ky.someone.mods.interactio.Interactio.LOGGER;
+
+/**
+ * An on-disk cache of parsed in-world recipes, stored in their cached form (see {@link InWorldRecipeSerializer#toCache}).
+ * That's the network form, except that ingredients keep their tags, so cached recipes are the same as freshly parsed ones.
+ * <p>
+ * The cache is keyed by a hash of the recipe JSON as well as everything that form depends on:
+ * registry ids, tag contents and the versions of all loaded mods. If the hash matches on the next reload,
+ * recipes are read straight from the cache file instead of being parsed again.
+ */
+public final class RecipeCache {
+
+    private static final int MAGIC = 0x49525243; // IRRC
+    private static final int VERSION = 2;
+
+    private static final Path FILE = FMLPaths.GAMEDIR.get().resolve(".cache").resolve("interactio").resolve("recipes.bin");
+
+    private RecipeCache() {
+    }
+
+    public static byte[] hash(SortedMap<ResourceLocation, JsonObject> recipes) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        update(digest, "version", VERSION);
+        ModList.get().getMods().forEach(mod -> update(digest, mod.getModId(), mod.getVersion().toString()));
+
+        recipes.forEach((id, json) -> update(digest, id.toString(), json.toString()));
+
+        hashRegistry(digest, Registry.ITEM);
+        hashRegistry(digest, Registry.BLOCK);
+        hashRegistry(digest, Registry.FLUID);
+        hashRegistry(digest, Registry.ENTITY_TYPE);
+
+        hashTags(digest, SerializationTags.getInstance().getItems(), Registry.ITEM);
+        hashTags(digest, SerializationTags.getInstance().getBlocks(), Registry.BLOCK);
+        hashTags(digest, SerializationTags.getInstance().getFluids(), Registry.FLUID);
+        hashTags(digest, SerializationTags.getInstance().getEntityTypes(), Registry.ENTITY_TYPE);
+
+        return digest.digest();
+    }
+
+    private static <T> void hashRegistry(MessageDigest digest, Registry<T> registry) {
+        for (T entry : registry) {
+            update(digest, String.valueOf(registry.getKey(entry)), registry.getId(entry));
+        }
+    }
+
+    private static <T> void hashTags(MessageDigest digest, TagCollection<T> tags, Registry<T> registry) {
+        new TreeMap<>(tags.getAllTags()).forEach((id, tag) -> {
+            update(digest, "tag", id.toString());
+            for (T value : tag.getValues()) {
+                update(digest, id.toString(), String.valueOf(registry.getKey(value)));
+            }
+        });
+    }
+
+    private static void update(MessageDigest digest, String key, Object value) {
+        digest.update(key.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(value.toString().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    /**
+     * @return All recipes from the cache file, or null if there is no usable cache for the given hash
+     */
+    @Nullable
+    public static Map<ResourceLocation, InWorldRecipe<?, ?, ?>> load(byte[] hash, Map<ResourceLocation, InWorldRecipeSerializer<?>> serializers) {
+        if (!Files.isRegularFile(FILE)) return null;
+
+        try {
+            // read the file in one go rather than mapping it, since a mapped file can't be replaced on some systems until it's unmapped,
+            // which only happens once the mapping has been garbage collected
+            FriendlyByteBuf buffer = new FriendlyByteBuf(Unpooled.wrappedBuffer(Files.readAllBytes(FILE)));
+            if (buffer.readInt() != MAGIC || buffer.readVarInt() != VERSION) return null;
+            if (!Arrays.equals(buffer.readByteArray(), hash)) return null;
+
+            int size = buffer.readVarInt();
+            Map<ResourceLocation, InWorldRecipe<?, ?, ?>> recipes = new HashMap<>(size);
+            for (int i = 0; i < size; i++) {
+                InWorldRecipeSerializer<?> serializer = serializers.get(buffer.readResourceLocation());
+                ResourceLocation id = buffer.readResourceLocation();
+                if (serializer == null) return null;
+                recipes.put(id, serializer.fromCache(id, buffer));
+            }
+            return recipes;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not read in-world recipe cache, recipes will be parsed from scratch", e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes the given recipes to the cache file. The recipes are encoded right away, while the file is written in the background.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static void save(byte[] hash, Collection<? extends InWorldRecipe<?, ?, ?>> recipes) {
+        FriendlyByteBuf buffer = new FriendlyByteBuf(Unpooled.buffer());
+        try {
+            buffer.writeInt(MAGIC);
+            buffer.writeVarInt(VERSION);
+            buffer.writeByteArray(hash);
+            buffer.writeVarInt(recipes.size());
+            for (InWorldRecipe<?, ?, ?> recipe : recipes) {
+                InWorldRecipeSerializer serializer = (InWorldRecipeSerializer) recipe.getSerializer();
+                buffer.writeResourceLocation(Objects.requireNonNull(serializer.getRegistryName()));
+                buffer.writeResourceLocation(recipe.getId());
+                serializer.toCache(buffer, recipe);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not encode in-world recipe cache", e);
+            return;
+        }
+
+        byte[] bytes = new byte[buffer.readableBytes()];
+        buffer.readBytes(bytes);
+        buffer.release();
+
+        CompletableFuture.runAsync(() -> {
+            try {
+                Files.createDirectories(FILE.getParent());
+                Path temp = FILE.resolveSibling(FILE.getFileName() + ".tmp");
+                Files.write(temp, bytes);
+                Files.move(temp, FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                LOGGER.warn("Could not write in-world recipe cache", e);
+            }
+        }, Util.ioPool());
+    }
+}
@@ -0,0 +1,152 @@
+package ky.someone.mods.interactio.recipe.base;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import ky.someone.mods.interactio.recipe.base.InWorldRecipe.InWorldRecipeSerializer;
+import net.minecraft.ResourceLocationException;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.util.GsonHelper;
+import net.minecraft.world.item.crafting.RecipeSerializer;
+import net.minecraftforge.common.crafting.CraftingHelper;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static ky.someone.mods.interactio.Interactio.LOGGER;
+import static ky.someone.mods.interactio.Utils.countJsonNodes;
+
+/**
+ * Parses all in-world recipes of a datapack reload in parallel, before vanilla gets to them.
+ * <p>
+ * Vanilla's {@link net.minecraft.world.item.crafting.RecipeManager} still asks each serializer for its recipes
+ * one after the other; {@link InWorldRecipeSerializer#fromJson} then just hands out the recipe that was parsed ahead of time,
+ * or rethrows the exception its parsing ran into, so errors are still logged for the right recipe id.
+ * <p>
+ * If nothing relevant changed since the last reload, recipes are taken from the {@link RecipeCache} instead of being parsed at all.
+ */
+public final class RecipePreParser {
+
+    private static final Map<ResourceLocation, Result> results = new ConcurrentHashMap<>();
+    // size of the source JSON per serializer, kept only to report how much memory not retaining it saves
+    private static volatile Map<InWorldRecipeSerializer<?>, Long> sourceJsonNodes = Collections.emptyMap();
+
+    private RecipePreParser() {
+    }
+
+    public static void preParse(Map<ResourceLocation, ? extends JsonElement> recipes) {
+        results.clear();
+
+        Map<ResourceLocation, InWorldRecipeSerializer<?>> serializers = new HashMap<>();
+        for (InWorldRecipeType<?> type : InWorldRecipeType.all()) {
+            if (type.serializer instanceof InWorldRecipeSerializer && type.serializer.getRegistryName() != null) {
+                serializers.put(type.serializer.getRegistryName(), (InWorldRecipeSerializer<?>) type.serializer);
+            }
+        }
+
+        List<Task> tasks = new ArrayList<>();
+        recipes.forEach((id, element) -> {
+            if (id.getPath().startsWith("_") || !element.isJsonObject()) return;
+            JsonObject json = element.getAsJsonObject();
+            try {
+                InWorldRecipeSerializer<?> serializer = serializers.get(new ResourceLocation(GsonHelper.getAsString(json, "type", "")));
+                // recipes whose conditions fail are skipped by vanilla, so they're neither parsed nor part of the cache key
+                if (serializer != null && CraftingHelper.processConditions(json, "conditions")) tasks.add(new Task(id, json, serializer));
+            } catch (ResourceLocationException | JsonParseException ignored) {
+                // not ours to complain about, vanilla will report it
+            }
+        });
+
+        Map<InWorldRecipeSerializer<?>, Long> nodes = new HashMap<>();
+        tasks.forEach(task -> nodes.merge(task.serializer, (long) countJsonNodes(task.json), Long::sum));
+        sourceJsonNodes = nodes;
+        if (tasks.isEmpty()) return;
+
+        long start = System.nanoTime();
+        SortedMap<ResourceLocation, JsonObject> jsons = new TreeMap<>();
+        tasks.forEach(task -> jsons.put(task.id, task.json));
+        byte[] hash = RecipeCache.hash(jsons);
+
+        Map<ResourceLocation, InWorldRecipe<?, ?, ?>> cached = RecipeCache.load(hash, serializers);
+        if (cached != null) {
+            cached.forEach((id, recipe) -> {
+                JsonObject json = jsons.get(id);
+                if (json != null) results.put(id, new Result(json, recipe, null));
+            });
+            LOGGER.debug("Loaded {} in-world recipes from cache in {} ms", cached.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return;
+        }
+
+        ForkJoinPool.commonPool().submit(() -> tasks.parallelStream().forEach(Task::run)).join();
+        LOGGER.debug("Pre-parsed {} in-world recipes in {} ms", tasks.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        // recipes that failed to parse aren't cached, so they're parsed (and their errors reported) again next time
+        List<InWorldRecipe<?, ?, ?>> parsed = new ArrayList<>();
+        results.values().forEach(result -> {
+            if (result.recipe != null) parsed.add(result.recipe);
+        });
+        RecipeCache.save(hash, parsed);
+    }
+
+    /**
+     * Removes and returns the pre-parsed result for the given recipe, if it was parsed from the very same JSON object.
+     */
+    @Nullable
+    static Result take(ResourceLocation id, JsonObject json) {
+        Result result = results.remove(id);
+        return result != null && result.json == json ? result : null;
+    }
+
+    /**
+     * @return The number of JSON nodes all recipes of the given serializer had in the datapacks of the last reload
+     */
+    public static long getSourceJsonNodes(RecipeSerializer<?> serializer) {
+        return sourceJsonNodes.getOrDefault(serializer, 0L);
+    }
+
+    public static void clear() {
+        results.clear();
+    }
+
+    private static final class Task {
+        private final ResourceLocation id;
+        private final JsonObject json;
+        private final InWorldRecipeSerializer<?> serializer;
+
+        private Task(ResourceLocation id, JsonObject json, InWorldRecipeSerializer<?> serializer) {
+            this.id = id;
+            this.json = json;
+            this.serializer = serializer;
+        }
+
+        private void run() {
+            try {
+                results.put(id, new Result(json, serializer.parse(id, json), null));
+            } catch (RuntimeException e) {
+                results.put(id, new Result(json, null, e));
+            }
+        }
+    }
+
+    static final class Result {
+        private final JsonObject json;
+        @Nullable
+        private final InWorldRecipe<?, ?, ?> recipe;
+        @Nullable
+        private final RuntimeException error;
+
+        private Result(JsonObject json, @Nullable InWorldRecipe<?, ?, ?> recipe, @Nullable RuntimeException error) {
+            this.json = json;
+            this.recipe = recipe;
+            this.error = error;
+        }
+
+        InWorldRecipe<?, ?, ?> get() {
+            if (error != null) throw error;
+            return Objects.requireNonNull(recipe);
+        }
+    }
+}
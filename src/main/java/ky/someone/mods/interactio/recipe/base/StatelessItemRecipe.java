@@ -12,13 +12,14 @@ import net.minecraft.world.entity.item.ItemEntity;
 import net.minecraft.world.item.crafting.Ingredient;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 import static ky.someone.mods.interactio.Utils.compareStacks;
 import static ky.someone.mods.interactio.Utils.testAll;
 
 public abstract class StatelessItemRecipe<U extends CraftingInfo> extends StatelessRecipe<List<ItemEntity>, U> {
 
-    public StatelessItemRecipe(ResourceLocation id, List<ItemIngredient> itemInputs, BlockIngredient blockInput, FluidIngredient fluidInput, DynamicOutput output, boolean canRunParallel, JsonObject json) {
+    public StatelessItemRecipe(ResourceLocation id, List<ItemIngredient> itemInputs, BlockIngredient blockInput, FluidIngredient fluidInput, Supplier<DynamicOutput> output, boolean canRunParallel, JsonObject json) {
         super(id, itemInputs, blockInput, fluidInput, output, canRunParallel, json);
     }
 
@@ -29,7 +30,7 @@ public abstract class StatelessItemRecipe<U extends CraftingInfo> extends Statel
 
     @Override
     public boolean canCraft(List<ItemEntity> entities, U info) {
-        return testAll(this.startCraftConditions, entities, null, info)
+        return testAll(this.startCraftConditions(), entities, null, info)
                 && compareStacks(entities, this.itemInputs);
     }
 
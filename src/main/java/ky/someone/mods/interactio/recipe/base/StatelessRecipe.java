@@ -11,10 +11,11 @@ import net.minecraft.world.level.block.state.StateHolder;
 
 import javax.annotation.Nullable;
 import java.util.List;
+import java.util.function.Supplier;
 
 public abstract class StatelessRecipe<R, U extends CraftingInfo> extends InWorldRecipe<R, StateHolder<?, ?>, U> {
 
-    public StatelessRecipe(ResourceLocation id, List<ItemIngredient> itemInputs, BlockIngredient blockInput, FluidIngredient fluidInput, DynamicOutput output, boolean canRunParallel, JsonObject json) {
+    public StatelessRecipe(ResourceLocation id, List<ItemIngredient> itemInputs, BlockIngredient blockInput, FluidIngredient fluidInput, Supplier<DynamicOutput> output, boolean canRunParallel, JsonObject json) {
         super(id, itemInputs, blockInput, fluidInput, output, canRunParallel, json);
     }
 
@@ -2,6 +2,7 @@ package ky.someone.mods.interactio.recipe.duration;
 
 import ky.someone.mods.interactio.recipe.base.DurationRecipe;
 import ky.someone.mods.interactio.recipe.base.InWorldRecipeType;
+import ky.someone.mods.interactio.recipe.limit.OutputBackpressure;
 import ky.someone.mods.interactio.recipe.util.DefaultInfo;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.level.Level;
@@ -52,7 +53,7 @@ public class DurationManager<R extends DurationRecipe<T, S>, T, S extends StateH
             else if (recipe.canCraft(input, state, info)) {
                 recipe.tick(input, state, info);
                 entry.setValue(duration);
-                if (recipe.isFinished(duration)) {
+                if (recipe.isFinished(duration) && !OutputBackpressure.shouldPause(world, pos)) {
                     recipe.craft(input, info);
                     toRemove.add(pos);
                 }
@@ -72,7 +73,7 @@ public class DurationManager<R extends DurationRecipe<T, S>, T, S extends StateH
     }
 
     private void trackOrCraft(Level world, BlockPos pos, R recipe, T input) {
-        if (recipe.getDuration() == 0)
+        if (recipe.getDuration() == 0 && !OutputBackpressure.shouldPause(world, pos))
             recipe.craft(input, new DefaultInfo(recipe, world, pos));
         else this.existingRecipes.put(pos, new SimpleEntry<>(recipe, 0));
     }
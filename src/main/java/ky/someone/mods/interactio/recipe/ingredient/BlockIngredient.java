@@ -16,10 +16,10 @@ import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.state.BlockState;
 
 import javax.annotation.Nullable;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.stream.Collectors;
+import java.util.Random;
+import java.util.Set;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -31,7 +31,7 @@ public class BlockIngredient extends RecipeIngredient<Block> {
     public static final BlockIngredient EMPTY = new BlockIngredient(Stream.empty());
 
     private final IBlockList[] acceptedBlocks;
-    private Collection<Block> matchingBlocks;
+    private volatile ResolvedSet<Block> matchingBlocks;
 
     protected BlockIngredient(Stream<? extends IBlockList> blockLists) {
         super(1, 0);
@@ -44,16 +44,16 @@ public class BlockIngredient extends RecipeIngredient<Block> {
      * @return A list of matching blocks
      */
     public Collection<Block> getMatching() {
-        this.determineMatchingBlocks();
-        return matchingBlocks;
+        return this.determineMatchingBlocks();
     }
 
-    private void determineMatchingBlocks() {
-        if (this.matchingBlocks == null) {
-            this.matchingBlocks = Arrays.stream(this.acceptedBlocks)
-                    .flatMap(list -> list.getBlocks().stream())
-                    .collect(Collectors.toSet());
+    private Set<Block> determineMatchingBlocks() {
+        ResolvedSet<Block> resolved = this.matchingBlocks;
+        if (resolved == null || !resolved.isCurrent()) {
+            resolved = ResolvedSet.resolve(this.acceptedBlocks, IBlockList::getBlocks);
+            this.matchingBlocks = resolved;
         }
+        return resolved.values;
     }
 
     /**
@@ -66,8 +66,7 @@ public class BlockIngredient extends RecipeIngredient<Block> {
         if (block == null) {
             return false;
         } else {
-            this.determineMatchingBlocks();
-            return matchingBlocks.contains(block);
+            return this.determineMatchingBlocks().contains(block);
         }
     }
 
@@ -89,6 +88,11 @@ public class BlockIngredient extends RecipeIngredient<Block> {
      * @throws JsonSyntaxException If the JSON cannot be parsed
      */
     public static BlockIngredient deserialize(@Nullable JsonElement json) {
+        if (json == null || json.isJsonNull()) return parse(json);
+        return RecipeInterner.intern(BlockIngredient.class, json, () -> parse(json));
+    }
+
+    private static BlockIngredient parse(@Nullable JsonElement json) {
         if (json != null && !json.isJsonNull()) {
             if (json.isJsonObject()) {
                 return new BlockIngredient(Stream.of(deserializeBlockList(json.getAsJsonObject())));
@@ -119,7 +123,7 @@ public class BlockIngredient extends RecipeIngredient<Block> {
             if (tag == null) {
                 throw new JsonSyntaxException("Unknown block tag '" + id + "'");
             }
-            return new TagList(tag);
+            return new TagList(id, tag);
         }
 
         throw new JsonSyntaxException("Block ingredient should have either 'tag' or 'block'");
@@ -142,11 +146,25 @@ public class BlockIngredient extends RecipeIngredient<Block> {
      * @param buffer The packet buffer
      */
     public void write(FriendlyByteBuf buffer) {
-        this.determineMatchingBlocks();
+        Set<Block> matchingBlocks = this.determineMatchingBlocks();
         buffer.writeVarInt(matchingBlocks.size());
         matchingBlocks.forEach(block -> IEntrySerializer.BLOCK.write(buffer, block));
     }
 
+    /**
+     * Serializes the ingredient to JSON, keeping tags as they are. Use with {@link #deserialize(JsonElement)}.
+     *
+     * @return The JSON form of this ingredient
+     */
+    @Override
+    public JsonElement serialize() {
+        JsonArray lists = new JsonArray();
+        for (IBlockList list : this.acceptedBlocks) {
+            lists.add(list.serialize());
+        }
+        return lists;
+    }
+
     public interface IBlockList {
         Collection<Block> getBlocks();
 
@@ -174,20 +192,23 @@ public class BlockIngredient extends RecipeIngredient<Block> {
     }
 
     public static class TagList implements IBlockList {
+        private final ResourceLocation id;
         private final Tag<Block> tag;
 
-        public TagList(Tag<Block> tagIn) {
+        public TagList(ResourceLocation id, Tag<Block> tagIn) {
+            this.id = id;
             this.tag = tagIn;
         }
 
+        // look the tag up again, since the one we parsed may be outdated after a tag reload
         public Collection<Block> getBlocks() {
-            return this.tag.getValues();
+            Set<Block> current = TagCache.blocks(id);
+            return current == null ? this.tag.getValues() : current;
         }
 
         public JsonObject serialize() {
             JsonObject jsonobject = new JsonObject();
-            // func_232975_b_ = checkId
-            jsonobject.addProperty("tag", BlockTags.getAllTags().getIdOrThrow(tag).toString());
+            jsonobject.addProperty("tag", id.toString());
             return jsonobject;
         }
     }
@@ -198,7 +219,7 @@ public class BlockIngredient extends RecipeIngredient<Block> {
     }
 
     @Override
-    public boolean roll() {
+    public boolean roll(Random random) {
         return false;
     }
 }
\ No newline at end of file
@@ -3,7 +3,9 @@ package ky.someone.mods.interactio.recipe.ingredient;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonSyntaxException;
 import ky.someone.mods.interactio.Utils;
+import ky.someone.mods.interactio.recipe.limit.OutputBackpressure;
 import ky.someone.mods.interactio.recipe.util.IEntrySerializer;
+import ky.someone.mods.interactio.recipe.util.RecipeRandom;
 import net.minecraft.core.BlockPos;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.util.GsonHelper;
@@ -19,9 +21,7 @@ import net.minecraft.world.level.material.Fluids;
 import net.minecraft.world.phys.Vec3;
 
 import javax.annotation.Nullable;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.Random;
+import java.util.*;
 
 @SuppressWarnings("rawtypes")
 public final class DynamicOutput {
@@ -40,23 +40,23 @@ public final class DynamicOutput {
     public final WeightedOutput<EntityType> entityOutput;
 
     @Nullable
-    public Block getBlock() {
-        return isBlock() ? blockOutput.rollOnce() : null;
+    public Block getBlock(Random random) {
+        return isBlock() ? blockOutput.rollOnce(random) : null;
     }
 
     @Nullable
-    public Collection<ItemStack> getItems() {
-        return isItem() ? itemOutput.roll() : null;
+    public Collection<ItemStack> getItems(Random random) {
+        return isItem() ? itemOutput.roll(random, new ArrayList<>(itemOutput.rolls)) : null;
     }
 
     @Nullable
-    public Fluid getFluid() {
-        return isFluid() ? fluidOutput.rollOnce() : null;
+    public Fluid getFluid(Random random) {
+        return isFluid() ? fluidOutput.rollOnce(random) : null;
     }
 
     @Nullable
-    public EntityType<?> getEntity() {
-        return isEntity() ? entityOutput.rollOnce() : null;
+    public EntityType<?> getEntity(Random random) {
+        return isEntity() ? entityOutput.rollOnce(random) : null;
     }
 
     public boolean isBlock() {
@@ -77,6 +77,8 @@ public final class DynamicOutput {
 
     @SuppressWarnings("unchecked")
     private <C> DynamicOutput(@Nullable WeightedOutput<C> output, Class<C> cls) {
+        // outputs are shared by every craft of the recipe, so they shouldn't change from here on
+        if (output != null) output.freeze();
         if (cls == Block.class) {
             this.blockOutput = (WeightedOutput<Block>) output;
             this.fluidOutput = null;
@@ -106,36 +108,72 @@ public final class DynamicOutput {
     }
 
     public void spawn(Level world, BlockPos pos, boolean invulnerable) {
-        Random rand = world.getRandom();
+        if (isItem()) {
+            List<ItemStack> stacks = this.itemOutput.roll(RecipeRandom.get(world), new ArrayList<>(this.itemOutput.rolls));
+            boolean congested = OutputBackpressure.isCongested(world, pos);
+            stacks.forEach(stack -> spawnItem(world, pos, stack, invulnerable, congested));
+        } else spawn(world, pos, invulnerable, 1);
+    }
+
+    /**
+     * Spawns the output of the given number of crafts at once. Item outputs are rolled in a single batch
+     * and spawned as full stacks, so this costs about the same no matter how many crafts there are.
+     */
+    public void spawn(Level world, BlockPos pos, boolean invulnerable, int times) {
+        if (times <= 0) return;
+        Random random = RecipeRandom.get(world);
         if (isBlock()) {
-            world.setBlockAndUpdate(pos, this.getBlock().defaultBlockState());
+            world.setBlockAndUpdate(pos, this.blockOutput.rollOnce(random).defaultBlockState());
         } else if (isFluid()) {
-            Fluid fluid = this.getFluid();
+            Fluid fluid = this.fluidOutput.rollOnce(random);
             if (fluid == null) fluid = Fluids.EMPTY;
             world.setBlockAndUpdate(pos, fluid.defaultFluidState().createLegacyBlock());
         } else if (isItem()) {
-            Collection<ItemStack> stacks = this.getItems();
-            stacks.forEach(stack -> {
-                double x = pos.getX() + Mth.nextDouble(rand, 0.25, 0.75);
-                double y = pos.getY() + Mth.nextDouble(rand, 0.5, 1);
-                double z = pos.getZ() + Mth.nextDouble(rand, 0.25, 0.75);
-
-                double vel = Mth.nextDouble(rand, 0.1, 0.25);
-
-                ItemEntity newItem = new ItemEntity(world, x, y, z, stack.copy());
-                newItem.setDeltaMovement(0, vel, 0);
-                if (invulnerable) newItem.setInvulnerable(true);
-                world.addFreshEntity(newItem);
+            boolean congested = OutputBackpressure.isCongested(world, pos);
+            this.itemOutput.rollMany(random, times, (stack, count) -> {
+                long remaining = (long) stack.getCount() * count;
+                while (remaining > 0) {
+                    ItemStack split = stack.copy();
+                    split.setCount((int) Math.min(remaining, stack.getMaxStackSize()));
+                    remaining -= split.getCount();
+                    spawnItem(world, pos, split, invulnerable, congested);
+                }
             });
         } else if (isEntity()) {
-            EntityType<?> entityType = this.getEntity();
-            Entity entity = entityType.create(world);
-            entity.moveTo(Vec3.atBottomCenterOf(pos));
-            world.addFreshEntity(entity);
+            for (int i = 0; i < times; i++) {
+                EntityType<?> entityType = this.entityOutput.rollOnce(random);
+                Entity entity = entityType.create(world);
+                entity.moveTo(Vec3.atBottomCenterOf(pos));
+                world.addFreshEntity(entity);
+            }
         }
     }
 
+    private static void spawnItem(Level world, BlockPos pos, ItemStack stack, boolean invulnerable, boolean congested) {
+        if (congested) {
+            stack = stack.copy();
+            OutputBackpressure.merge(world, pos, stack, invulnerable);
+            if (stack.isEmpty()) return;
+        }
+
+        Random rand = RecipeRandom.get(world);
+        double x = pos.getX() + Mth.nextDouble(rand, 0.25, 0.75);
+        double y = pos.getY() + Mth.nextDouble(rand, 0.5, 1);
+        double z = pos.getZ() + Mth.nextDouble(rand, 0.25, 0.75);
+
+        double vel = Mth.nextDouble(rand, 0.1, 0.25);
+
+        ItemEntity newItem = new ItemEntity(world, x, y, z, stack.copy());
+        newItem.setDeltaMovement(0, vel, 0);
+        if (invulnerable) newItem.setInvulnerable(true);
+        world.addFreshEntity(newItem);
+    }
+
     public static DynamicOutput create(JsonObject json, String... blacklist) {
+        return RecipeInterner.intern(DynamicOutput.class, Arrays.asList(json, Arrays.asList(blacklist)), () -> parse(json, blacklist));
+    }
+
+    private static DynamicOutput parse(JsonObject json, String... blacklist) {
         // 4 cases to check
         if (json.has("block")) {
             if (Arrays.asList(blacklist).contains("block"))
@@ -16,10 +16,10 @@ import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.entity.LivingEntity;
 
 import javax.annotation.Nullable;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.stream.Collectors;
+import java.util.Random;
+import java.util.Set;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -31,7 +31,7 @@ public class EntityIngredient extends RecipeIngredient<EntityType<?>> {
     public static final EntityIngredient EMPTY = new EntityIngredient(Stream.empty());
 
     private final IEntityList[] acceptedEntities;
-    private Collection<EntityType<?>> matchingEntities;
+    private volatile ResolvedSet<EntityType<?>> matchingEntities;
 
     protected EntityIngredient(Stream<? extends IEntityList> entityLists) {
         super(1, 0);
@@ -44,16 +44,16 @@ public class EntityIngredient extends RecipeIngredient<EntityType<?>> {
      * @return A list of matching entities
      */
     public Collection<EntityType<?>> getMatching() {
-        this.determineMatchingEntities();
-        return matchingEntities;
+        return this.determineMatchingEntities();
     }
 
-    private void determineMatchingEntities() {
-        if (this.matchingEntities == null) {
-            this.matchingEntities = Arrays.stream(this.acceptedEntities)
-                    .flatMap(list -> list.getEntities().stream())
-                    .collect(Collectors.toSet());
+    private Set<EntityType<?>> determineMatchingEntities() {
+        ResolvedSet<EntityType<?>> resolved = this.matchingEntities;
+        if (resolved == null || !resolved.isCurrent()) {
+            resolved = ResolvedSet.resolve(this.acceptedEntities, IEntityList::getEntities);
+            this.matchingEntities = resolved;
         }
+        return resolved.values;
     }
 
     /**
@@ -66,8 +66,7 @@ public class EntityIngredient extends RecipeIngredient<EntityType<?>> {
         if (entity == null) {
             return false;
         } else {
-            this.determineMatchingEntities();
-            return matchingEntities.contains(entity);
+            return this.determineMatchingEntities().contains(entity);
         }
     }
 
@@ -90,6 +89,11 @@ public class EntityIngredient extends RecipeIngredient<EntityType<?>> {
      * @throws JsonSyntaxException If the JSON cannot be parsed
      */
     public static EntityIngredient deserialize(@Nullable JsonElement json) {
+        if (json == null || json.isJsonNull()) return parse(json);
+        return RecipeInterner.intern(EntityIngredient.class, json, () -> parse(json));
+    }
+
+    private static EntityIngredient parse(@Nullable JsonElement json) {
         if (json != null && !json.isJsonNull()) {
             if (json.isJsonObject()) {
                 return new EntityIngredient(Stream.of(deserializeEntityList(json.getAsJsonObject())));
@@ -120,7 +124,7 @@ public class EntityIngredient extends RecipeIngredient<EntityType<?>> {
             if (tag == null) {
                 throw new JsonSyntaxException("Unknown entity tag '" + id + "'");
             }
-            return new TagList(tag);
+            return new TagList(id, tag);
         }
 
         throw new JsonSyntaxException("Entity ingredient should have either 'tag' or 'entity'");
@@ -143,11 +147,25 @@ public class EntityIngredient extends RecipeIngredient<EntityType<?>> {
      * @param buffer The packet buffer
      */
     public void write(FriendlyByteBuf buffer) {
-        this.determineMatchingEntities();
+        Set<EntityType<?>> matchingEntities = this.determineMatchingEntities();
         buffer.writeVarInt(matchingEntities.size());
         matchingEntities.forEach(entity -> IEntrySerializer.ENTITY.write(buffer, entity));
     }
 
+    /**
+     * Serializes the ingredient to JSON, keeping tags as they are. Use with {@link #deserialize(JsonElement)}.
+     *
+     * @return The JSON form of this ingredient
+     */
+    @Override
+    public JsonElement serialize() {
+        JsonArray lists = new JsonArray();
+        for (IEntityList list : this.acceptedEntities) {
+            lists.add(list.serialize());
+        }
+        return lists;
+    }
+
     public interface IEntityList {
         Collection<EntityType<?>> getEntities();
 
@@ -175,20 +193,23 @@ public class EntityIngredient extends RecipeIngredient<EntityType<?>> {
     }
 
     public static class TagList implements IEntityList {
+        private final ResourceLocation id;
         private final Tag<EntityType<?>> tag;
 
-        public TagList(Tag<EntityType<?>> tagIn) {
+        public TagList(ResourceLocation id, Tag<EntityType<?>> tagIn) {
+            this.id = id;
             this.tag = tagIn;
         }
 
+        // look the tag up again, since the one we parsed may be outdated after a tag reload
         public Collection<EntityType<?>> getEntities() {
-            return this.tag.getValues();
+            Set<EntityType<?>> current = TagCache.entities(id);
+            return current == null ? this.tag.getValues() : current;
         }
 
         public JsonObject serialize() {
             JsonObject jsonobject = new JsonObject();
-            // func_232975_b_ = checkId
-            jsonobject.addProperty("tag", EntityTypeTags.getAllTags().getIdOrThrow(tag).toString());
+            jsonobject.addProperty("tag", id.toString());
             return jsonobject;
         }
     }
@@ -199,7 +220,7 @@ public class EntityIngredient extends RecipeIngredient<EntityType<?>> {
     }
 
     @Override
-    public boolean roll() {
+    public boolean roll(Random random) {
         return false;
     }
 }
\ No newline at end of file
@@ -0,0 +1,172 @@
+package ky.someone.mods.interactio.recipe.ingredient;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.material.FluidState;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * A reusable breadth-first flood fill over fluid blocks, working entirely on {@code long}-packed positions.
+ * <p>
+ * Queue and visited set are primitive structures that are kept around per thread and reset in constant time,
+ * so searching a fluid body doesn't allocate anything except for what ends up in the caller's result collections.
+ */
+final class FluidFloodFill {
+
+    private static final ThreadLocal<FluidFloodFill> POOL = ThreadLocal.withInitial(FluidFloodFill::new);
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    // anything larger than this will be thrown away after use, so one huge lake doesn't pin the memory forever
+    private static final int MAX_RETAINED_CAPACITY = 1 << 16;
+    private static final int DEFAULT_CAPACITY = 256;
+
+    static FluidFloodFill get() {
+        return POOL.get();
+    }
+
+    private final BlockPos.MutableBlockPos cursor = new BlockPos.MutableBlockPos();
+
+    // ring buffer queue
+    private long[] queue = new long[DEFAULT_CAPACITY];
+    private int head, tail;
+
+    // open addressing visited set, entries are only valid if their stamp matches the current epoch
+    private long[] keys = new long[DEFAULT_CAPACITY];
+    private int[] stamps = new int[DEFAULT_CAPACITY];
+    private int epoch = 0;
+    private int size;
+
+    private FluidFloodFill() {
+    }
+
+    /**
+     * Searches the fluid body around {@code center} until {@code count} sources have been found
+     * or no more connected fluid matching the ingredient is left.
+     * The center position is always counted as the first source.
+     *
+     * @param sources Receives the packed positions of all sources found
+     * @param members If not null, receives every matching fluid position that has been visited
+     * @param watched If not null, receives the members plus all non-matching positions right next to them
+     */
+    void fill(FluidIngredient ingredient, Level level, long center, int count, LongList sources, @Nullable LongSet members, @Nullable LongSet watched) {
+        reset();
+
+        enqueue(center);
+        visit(center);
+        sources.add(center);
+        if (members != null) members.add(center);
+        if (watched != null) watched.add(center);
+
+        try {
+            while (head != tail && sources.size() < count) {
+                long pos = dequeue();
+                for (Direction dir : DIRECTIONS) {
+                    long next = BlockPos.offset(pos, dir);
+                    if (isVisited(next))
+                        continue;
+
+                    if (watched != null) watched.add(next);
+                    FluidState state = level.getFluidState(cursor.set(BlockPos.getX(next), BlockPos.getY(next), BlockPos.getZ(next)));
+                    if (!ingredient.test(state.getType()))
+                        continue;
+
+                    enqueue(next);
+                    visit(next);
+                    if (members != null) members.add(next);
+                    if (!state.isSource())
+                        continue;
+                    sources.add(next);
+                    if (sources.size() >= count)
+                        return;
+                }
+            }
+        } finally {
+            trim();
+        }
+    }
+
+    private void reset() {
+        head = tail = 0;
+        size = 0;
+        if (++epoch == 0) {
+            // stamps wrapped around, so old entries could suddenly look valid again
+            Arrays.fill(stamps, 0);
+            epoch = 1;
+        }
+    }
+
+    private void trim() {
+        if (queue.length > MAX_RETAINED_CAPACITY) queue = new long[DEFAULT_CAPACITY];
+        if (keys.length > MAX_RETAINED_CAPACITY) {
+            keys = new long[DEFAULT_CAPACITY];
+            stamps = new int[DEFAULT_CAPACITY];
+        }
+    }
+
+    // region queue
+    private void enqueue(long pos) {
+        queue[tail] = pos;
+        tail = (tail + 1) & (queue.length - 1);
+        if (tail == head) growQueue();
+    }
+
+    private long dequeue() {
+        long pos = queue[head];
+        head = (head + 1) & (queue.length - 1);
+        return pos;
+    }
+
+    private void growQueue() {
+        // the queue is full, with head == tail, so everything from head onwards comes first
+        long[] grown = new long[queue.length << 1];
+        int firstPart = queue.length - head;
+        System.arraycopy(queue, head, grown, 0, firstPart);
+        System.arraycopy(queue, 0, grown, firstPart, head);
+        head = 0;
+        tail = queue.length;
+        queue = grown;
+    }
+    // endregion queue
+
+    // region visited set
+    private boolean isVisited(long pos) {
+        int mask = keys.length - 1;
+        for (int i = (int) HashCommon.mix(pos) & mask; stamps[i] == epoch; i = (i + 1) & mask) {
+            if (keys[i] == pos) return true;
+        }
+        return false;
+    }
+
+    private void visit(long pos) {
+        if (insert(keys, stamps, pos) && ++size > (keys.length >> 1)) growSet();
+    }
+
+    private boolean insert(long[] keys, int[] stamps, long pos) {
+        int mask = keys.length - 1;
+        int i = (int) HashCommon.mix(pos) & mask;
+        for (; stamps[i] == epoch; i = (i + 1) & mask) {
+            if (keys[i] == pos) return false;
+        }
+        keys[i] = pos;
+        stamps[i] = epoch;
+        return true;
+    }
+
+    private void growSet() {
+        long[] oldKeys = keys;
+        int[] oldStamps = stamps;
+        keys = new long[oldKeys.length << 1];
+        stamps = new int[oldKeys.length << 1];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldStamps[i] == epoch) insert(keys, stamps, oldKeys[i]);
+        }
+    }
+    // endregion visited set
+}
@@ -4,9 +4,11 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonSyntaxException;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import ky.someone.mods.interactio.recipe.util.IEntrySerializer;
 import net.minecraft.core.BlockPos;
-import net.minecraft.core.Direction;
 import net.minecraft.core.Registry;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.resources.ResourceLocation;
@@ -16,6 +18,7 @@ import net.minecraft.util.GsonHelper;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.material.Fluid;
 import net.minecraft.world.level.material.FluidState;
+import net.minecraft.world.level.material.Fluids;
 import net.minecraftforge.fluids.FluidStack;
 
 import javax.annotation.Nullable;
@@ -34,11 +37,13 @@ import static ky.someone.mods.interactio.Utils.getDouble;
  */
 public class FluidIngredient implements Predicate<FluidStack> {
 
-    private static final Predicate<? super IFluidList> NON_EMPTY = (list) -> !list.getStacks().stream().allMatch(FluidStack::isEmpty);
+    private static final Predicate<? super IFluidList> NON_EMPTY = (list) -> !list.getFluids().stream().allMatch(fluid -> fluid == Fluids.EMPTY);
     public static final FluidIngredient EMPTY = new FluidIngredient(Stream.empty());
 
     private final IFluidList[] acceptedFluids;
-    private Collection<FluidStack> matchingStacks;
+    private volatile ResolvedSet<Fluid> matchingFluids;
+    // derived from the set it was built from, and only valid as long as that one is still current
+    private volatile MatchingStacks matchingStacks;
     private int count;
 
     protected FluidIngredient(Stream<? extends IFluidList> fluidLists) {
@@ -50,23 +55,31 @@ public class FluidIngredient implements Predicate<FluidStack> {
         this.count = count;
     }
 
-
     /**
      * Get a list of all {@link FluidStack}s which match this ingredient. Used for JEI support.
      *
      * @return A list of matching fluids
      */
     public Collection<FluidStack> getMatchingStacks() {
-        this.determineMatchingStacks();
-        return matchingStacks;
+        Set<Fluid> fluids = this.getMatchingFluids();
+        MatchingStacks stacks = this.matchingStacks;
+        if (stacks == null || stacks.fluids != fluids) {
+            stacks = new MatchingStacks(fluids);
+            this.matchingStacks = stacks;
+        }
+        return stacks.stacks;
     }
 
-    private void determineMatchingStacks() {
-        if (this.matchingStacks == null) {
-            this.matchingStacks = Arrays.stream(this.acceptedFluids)
-                    .flatMap(list -> list.getStacks().stream())
-                    .collect(Collectors.toSet());
+    /**
+     * @return An identity set of all {@link Fluid}s which match this ingredient
+     */
+    public Set<Fluid> getMatchingFluids() {
+        ResolvedSet<Fluid> resolved = this.matchingFluids;
+        if (resolved == null || !resolved.isCurrent()) {
+            resolved = ResolvedSet.resolve(this.acceptedFluids, IFluidList::getFluids);
+            this.matchingFluids = resolved;
         }
+        return resolved.values;
     }
 
     /**
@@ -81,9 +94,21 @@ public class FluidIngredient implements Predicate<FluidStack> {
         } else if (this.acceptedFluids.length == 0) {
             return stack.isEmpty();
         } else {
-            this.determineMatchingStacks();
-            return matchingStacks.contains(stack);
+            return !stack.isEmpty() && test(stack.getFluid());
+        }
+    }
+
+    /**
+     * Test for a match using a fluid.
+     *
+     * @param fluid Fluid to check the ingredient against
+     * @return True if the fluid matches the ingredient
+     */
+    public boolean test(@Nullable Fluid fluid) {
+        if (this.acceptedFluids.length == 0) {
+            return fluid == null || fluid == Fluids.EMPTY;
         }
+        return fluid != null && getMatchingFluids().contains(fluid);
     }
 
     /**
@@ -93,7 +118,7 @@ public class FluidIngredient implements Predicate<FluidStack> {
      * @return True if the fluid matches the ingredient
      */
     public boolean test(Level level, @Nullable Fluid fluid) {
-        return test(fluid == null ? FluidStack.EMPTY : new FluidStack(fluid, 1000));
+        return test(fluid);
     }
 
     /**
@@ -105,8 +130,28 @@ public class FluidIngredient implements Predicate<FluidStack> {
      * @return True if the fluid matches the ingredient and there are enough source blocks connected to the given position
      */
     public boolean test(Level level, BlockPos pos) {
-        return test(level, level.getFluidState(pos).getType())
-                && findConnectedSources(level, pos).size() >= this.count;
+        return test(level, pos, level.getFluidState(pos));
+    }
+
+    /**
+     * Same as {@link #test(Level, BlockPos)}, but uses an already known fluid state for the given position
+     * instead of looking it up again.
+     *
+     * @param state The fluid state at the given position
+     */
+    public boolean test(Level level, BlockPos pos, FluidState state) {
+        return test(state.getType()) && hasConnectedSources(level, pos);
+    }
+
+    /**
+     * @return True if there are enough source blocks connected to the given position
+     */
+    public boolean hasConnectedSources(Level level, BlockPos pos) {
+        return FluidRegionCache.get(level).hasConnectedSources(this, level, pos, this.count);
+    }
+
+    public int countConnectedSources(Level level, BlockPos center) {
+        return FluidRegionCache.get(level).countConnectedSources(this, level, center, this.count);
     }
 
     /**
@@ -114,32 +159,20 @@ public class FluidIngredient implements Predicate<FluidStack> {
      * @return A list of source blocks connected to the fluid at the given position
      */
     public List<BlockPos> findConnectedSources(Level level, BlockPos center) {
-        Queue<BlockPos> toSearch = new LinkedList<>();
-        Set<BlockPos> searched = new HashSet<>();
-        List<BlockPos> sources = new LinkedList<>();
-        toSearch.add(center);
-        searched.add(center);
-        sources.add(center);
-
-        while (!toSearch.isEmpty() && sources.size() < this.count) {
-            BlockPos pos = toSearch.remove();
-            for (Direction dir : Direction.values()) {
-                BlockPos newPos = pos.relative(dir);
-                if (searched.contains(newPos))
-                    continue;
-
-                FluidState state = level.getFluidState(newPos);
-                if (!test(level, state.getType()))
-                    continue;
-                toSearch.add(newPos);
-                searched.add(newPos);
-                if (!state.isSource())
-                    continue;
-                sources.add(newPos);
-                if (sources.size() >= this.count)
-                    return sources;
-            }
-        }
+        return FluidRegionCache.get(level).findConnectedSources(this, level, center, this.count);
+    }
+
+    /**
+     * Floods the fluid body around the given position until at least {@code count} sources have been found,
+     * or the entire body has been searched.
+     *
+     * @param members  Will receive every matching fluid position that has been visited
+     * @param watched  Will receive every position the result depends on, i.e. the members and their non-matching neighbours
+     * @return The packed positions of all source blocks found, starting with the given position
+     */
+    protected LongList searchSources(Level level, BlockPos center, int count, LongSet members, LongSet watched) {
+        LongList sources = new LongArrayList();
+        FluidFloodFill.get().fill(this, level, center.asLong(), count, sources, members, watched);
         return sources;
     }
 
@@ -151,12 +184,17 @@ public class FluidIngredient implements Predicate<FluidStack> {
      * @throws JsonSyntaxException If the JSON cannot be parsed
      */
     public static FluidIngredient deserialize(@Nullable JsonElement json) {
+        if (json == null || json.isJsonNull()) return parse(json);
+        return RecipeInterner.intern(FluidIngredient.class, json, () -> parse(json));
+    }
+
+    private static FluidIngredient parse(@Nullable JsonElement json) {
         if (json != null && !json.isJsonNull()) {
             if (json.isJsonObject()) {
                 JsonObject obj = json.getAsJsonObject();
                 int count = (int) getDouble(obj, "count", 1);
                 if (obj.has("fluids")) {
-                    FluidIngredient temp = deserialize(obj.get("fluids"));
+                    FluidIngredient temp = parse(obj.get("fluids"));
                     return new FluidIngredient(Arrays.stream(temp.acceptedFluids), count);
                 }
                 return new FluidIngredient(Stream.of(deserializeFluidList(json.getAsJsonObject())), count);
@@ -187,7 +225,7 @@ public class FluidIngredient implements Predicate<FluidStack> {
             if (tag == null) {
                 throw new JsonSyntaxException("Unknown fluid tag '" + id + "'");
             }
-            return new TagList(tag);
+            return new TagList(id, tag);
         }
 
         throw new JsonSyntaxException("Fluid ingredient should have either 'tag' or 'fluid'");
@@ -201,7 +239,7 @@ public class FluidIngredient implements Predicate<FluidStack> {
      */
     public static FluidIngredient read(FriendlyByteBuf buffer) {
         int size = buffer.readVarInt();
-        Stream<? extends IFluidList> fluids = Stream.generate(() -> new SingleFluidList(FluidStack.readFromPacket(buffer))).limit(size);
+        Stream<? extends IFluidList> fluids = Stream.generate(() -> new SingleFluidList(IEntrySerializer.FLUID.read(buffer))).limit(size);
         int count = buffer.readVarInt();
         return new FluidIngredient(fluids, count);
     }
@@ -212,14 +250,46 @@ public class FluidIngredient implements Predicate<FluidStack> {
      * @param buffer The packet buffer
      */
     public void write(FriendlyByteBuf buffer) {
-        this.determineMatchingStacks();
-        buffer.writeVarInt(matchingStacks.size());
-        matchingStacks.forEach(fluidStack -> new FluidStack(fluidStack, 1).writeToPacket(buffer));
+        Set<Fluid> fluids = this.getMatchingFluids();
+        buffer.writeVarInt(fluids.size());
+        fluids.forEach(fluid -> IEntrySerializer.FLUID.write(buffer, fluid));
         buffer.writeVarInt(count);
     }
 
+    /**
+     * Serializes the ingredient to JSON, keeping tags as they are. Use with {@link #deserialize(JsonElement)}.
+     *
+     * @return The JSON form of this ingredient
+     */
+    public JsonElement serialize() {
+        JsonArray lists = new JsonArray();
+        for (IFluidList list : this.acceptedFluids) {
+            lists.add(list.serialize());
+        }
+        JsonObject json = new JsonObject();
+        json.add("fluids", lists);
+        json.addProperty("count", count);
+        return json;
+    }
+
+    private static final class MatchingStacks {
+        final Set<Fluid> fluids;
+        final List<FluidStack> stacks;
+
+        MatchingStacks(Set<Fluid> fluids) {
+            this.fluids = fluids;
+            this.stacks = fluids.stream()
+                    .map(fluid -> new FluidStack(fluid, 1000))
+                    .collect(Collectors.toList());
+        }
+    }
+
     public interface IFluidList {
-        Collection<FluidStack> getStacks();
+        Collection<Fluid> getFluids();
+
+        default Collection<FluidStack> getStacks() {
+            return getFluids().stream().map(fluid -> new FluidStack(fluid, 1000)).collect(Collectors.toList());
+        }
 
         JsonObject serialize();
     }
@@ -235,6 +305,11 @@ public class FluidIngredient implements Predicate<FluidStack> {
             this.stack = stackIn;
         }
 
+        public Collection<Fluid> getFluids() {
+            return Collections.singleton(this.stack.getFluid());
+        }
+
+        @Override
         public Collection<FluidStack> getStacks() {
             return Collections.singleton(this.stack);
         }
@@ -249,20 +324,23 @@ public class FluidIngredient implements Predicate<FluidStack> {
     }
 
     public static class TagList implements IFluidList {
+        private final ResourceLocation id;
         private final Tag<Fluid> tag;
 
-        public TagList(Tag<Fluid> tagIn) {
+        public TagList(ResourceLocation id, Tag<Fluid> tagIn) {
+            this.id = id;
             this.tag = tagIn;
         }
 
-        public Collection<FluidStack> getStacks() {
-            return this.tag.getValues().parallelStream().map(fluid -> new FluidStack(fluid, 1000)).collect(Collectors.toList());
+        // look the tag up again, since the one we parsed may be outdated after a tag reload
+        public Collection<Fluid> getFluids() {
+            Set<Fluid> current = TagCache.fluids(id);
+            return current == null ? this.tag.getValues() : current;
         }
 
         public JsonObject serialize() {
             JsonObject jsonobject = new JsonObject();
-            // func_232975_b_ = checkId
-            jsonobject.addProperty("tag", SerializationTags.getInstance().getFluids().getIdOrThrow(tag).toString());
+            jsonobject.addProperty("tag", id.toString());
             return jsonobject;
         }
     }
@@ -0,0 +1,195 @@
+package ky.someone.mods.interactio.recipe.ingredient;
+
+import it.unimi.dsi.fastutil.longs.*;
+import ky.someone.mods.interactio.recipe.base.InWorldRecipeType;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.material.Fluid;
+
+import java.util.*;
+
+/**
+ * Caches the connected fluid bodies found by {@link FluidIngredient#findConnectedSources(Level, BlockPos)},
+ * so that large recipe counts on big lakes don't need to flood the whole lake again every tick.
+ * <p>
+ * Every cached region remembers all positions it has looked at, including the non-matching blocks around it.
+ * A block change at any of those positions drops the region, see {@link #onBlockChanged(Level, BlockPos)}.
+ * <p>
+ * Only server levels are cached, and caches are only ever touched from the server thread.
+ */
+public class FluidRegionCache {
+    protected static Map<Level, FluidRegionCache> caches = new WeakHashMap<>();
+
+    public static FluidRegionCache get(Level level) {
+        // client levels change on a different thread, so they just get a throwaway cache that floods from scratch
+        if (level.isClientSide) return new FluidRegionCache();
+
+        FluidRegionCache cache = caches.computeIfAbsent(level, k -> new FluidRegionCache());
+        // regions are kept per ingredient, so they're only any good for the recipes and tags they were found with;
+        // reloads may happen on other threads, so they're only noticed (and the cache cleared) here, on the server thread
+        int generation = InWorldRecipeType.generation();
+        int tagGeneration = TagCache.generation();
+        if (cache.generation != generation || cache.tagGeneration != tagGeneration) {
+            cache.clear();
+            cache.generation = generation;
+            cache.tagGeneration = tagGeneration;
+        }
+        return cache;
+    }
+
+    public static void onBlockChanged(Level level, BlockPos pos) {
+        if (level.isClientSide) return;
+        FluidRegionCache cache = caches.get(level);
+        if (cache != null) cache.invalidate(pos.asLong());
+    }
+
+    // for every ingredient, maps all positions inside a cached region to that region
+    protected final Map<FluidIngredient, Long2ObjectMap<Region>> regions = new IdentityHashMap<>();
+    // maps every position any cached region depends on to the regions depending on it
+    protected final Long2ObjectMap<List<Region>> watchers = new Long2ObjectOpenHashMap<>();
+
+    // per-tick results of source checks, shared by all ingredients that accept the same set of fluids
+    protected final Map<Set<Fluid>, Long2IntMap> tickCounts = new HashMap<>();
+    protected long tickCountsTime = Long.MIN_VALUE;
+
+    // the recipe reload and tag generations this cache was filled in
+    protected int generation = InWorldRecipeType.generation();
+    protected int tagGeneration = TagCache.generation();
+
+    protected FluidRegionCache() {
+    }
+
+    public List<BlockPos> findConnectedSources(FluidIngredient ingredient, Level level, BlockPos center, int count) {
+        return findRegion(ingredient, level, center, count).sourcesFrom(center, count);
+    }
+
+    /**
+     * Same as {@code findConnectedSources(...).size()}, but without building the list of positions in the common case.
+     */
+    public int countConnectedSources(FluidIngredient ingredient, Level level, BlockPos center, int count) {
+        Region region = findRegion(ingredient, level, center, count);
+        return region.sources.size() >= count ? count : region.sourcesFrom(center, count).size();
+    }
+
+    /**
+     * Checks whether at least {@code count} sources are connected to the given position.
+     * Results are remembered for the rest of the tick, so several recipes looking at the same position
+     * with equivalent fluid ingredients only need to consult the region cache once.
+     */
+    public boolean hasConnectedSources(FluidIngredient ingredient, Level level, BlockPos center, int count) {
+        long time = level.getGameTime();
+        if (time != tickCountsTime) {
+            tickCounts.clear();
+            tickCountsTime = time;
+        }
+
+        Long2IntMap counts = tickCounts.computeIfAbsent(ingredient.getMatchingFluids(), k -> new Long2IntOpenHashMap());
+        long pos = center.asLong();
+        // non-negative values are lower bounds, negative values -(n + 1) mean the body holds exactly n sources
+        if (counts.containsKey(pos)) {
+            int known = counts.get(pos);
+            if (known < 0) return -(known + 1) >= count;
+            if (known >= count) return true;
+        }
+
+        Region region = findRegion(ingredient, level, center, count);
+        int found = region.sources.size() >= count ? count : region.sourcesFrom(center, count).size();
+        counts.put(pos, found < count ? -(found + 1) : found);
+        return found >= count;
+    }
+
+    protected Region findRegion(FluidIngredient ingredient, Level level, BlockPos center, int count) {
+        Long2ObjectMap<Region> byPos = regions.computeIfAbsent(ingredient, k -> new Long2ObjectOpenHashMap<>());
+        Region region = byPos.get(center.asLong());
+
+        // a region that stopped searching early may simply not have found enough sources yet
+        if (region == null || (!region.isComplete() && region.sources.size() < count)) {
+            if (region != null) remove(region);
+            region = new Region(ingredient);
+
+            region.sources = ingredient.searchSources(level, center, count, region.members, region.watched);
+            region.complete = region.sources.size() < count;
+
+            for (LongIterator it = region.members.iterator(); it.hasNext(); ) {
+                byPos.put(it.nextLong(), region);
+            }
+            for (LongIterator it = region.watched.iterator(); it.hasNext(); ) {
+                watch(it.nextLong(), region);
+            }
+        }
+
+        return region;
+    }
+
+    protected void watch(long pos, Region region) {
+        List<Region> list = watchers.get(pos);
+        if (list == null) {
+            list = new ArrayList<>(1);
+            watchers.put(pos, list);
+        }
+        list.add(region);
+    }
+
+    protected void invalidate(long pos) {
+        if (watchers.isEmpty()) return;
+        List<Region> affected = watchers.remove(pos);
+        if (affected != null) {
+            affected.forEach(this::remove);
+            tickCounts.clear();
+        }
+    }
+
+    protected void remove(Region region) {
+        Long2ObjectMap<Region> byPos = regions.get(region.ingredient);
+        for (LongIterator it = region.members.iterator(); it.hasNext(); ) {
+            long pos = it.nextLong();
+            if (byPos != null && byPos.get(pos) == region) byPos.remove(pos);
+        }
+        for (LongIterator it = region.watched.iterator(); it.hasNext(); ) {
+            long pos = it.nextLong();
+            List<Region> list = watchers.get(pos);
+            if (list != null && list.remove(region) && list.isEmpty()) watchers.remove(pos);
+        }
+    }
+
+    public void clear() {
+        regions.clear();
+        watchers.clear();
+        tickCounts.clear();
+    }
+
+    protected static class Region {
+        protected final FluidIngredient ingredient;
+        // all matching fluid positions found while searching
+        protected final LongSet members = new LongOpenHashSet();
+        // the members, plus every non-matching position right next to them
+        protected final LongSet watched = new LongOpenHashSet();
+        protected LongList sources = LongLists.EMPTY_LIST;
+        protected boolean complete;
+
+        protected Region(FluidIngredient ingredient) {
+            this.ingredient = ingredient;
+        }
+
+        /**
+         * @return True if the whole fluid body has been searched, so the source list is exhaustive
+         */
+        protected boolean isComplete() {
+            return complete;
+        }
+
+        /**
+         * @return A fresh list of up to {@code count} sources, always starting with the given center position
+         */
+        protected List<BlockPos> sourcesFrom(BlockPos center, int count) {
+            List<BlockPos> result = new ArrayList<>(Math.min(count, sources.size() + 1));
+            result.add(center);
+            long centerPos = center.asLong();
+            for (int i = 0; i < sources.size() && result.size() < count; i++) {
+                long pos = sources.getLong(i);
+                if (pos != centerPos) result.add(BlockPos.of(pos));
+            }
+            return result;
+        }
+    }
+}
@@ -3,7 +3,6 @@ package ky.someone.mods.interactio.recipe.ingredient;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonSyntaxException;
-import ky.someone.mods.interactio.Interactio;
 import ky.someone.mods.interactio.Utils;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.util.GsonHelper;
@@ -13,8 +12,6 @@ import net.minecraft.world.item.crafting.Ingredient;
 import javax.annotation.Nullable;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Random;
-import java.util.stream.IntStream;
 
 public class ItemIngredient extends RecipeIngredient<ItemStack> {
 
@@ -22,10 +19,6 @@ public class ItemIngredient extends RecipeIngredient<ItemStack> {
 
     protected final Ingredient ingredient;
 
-    // technically, i *could* just use the mc world's random here
-    // but it doesn't really matter too much
-    private static final Random r = new Random();
-
     public ItemIngredient(Ingredient ingredient, int count) {
         this(ingredient, count, 0);
     }
@@ -43,16 +36,21 @@ public class ItemIngredient extends RecipeIngredient<ItemStack> {
     }
 
     public static ItemIngredient deserialize(@Nullable JsonElement json) {
+        if (json == null || json.isJsonNull()) return parse(json);
+        return RecipeInterner.intern(ItemIngredient.class, json, () -> parse(json));
+    }
+
+    private static ItemIngredient parse(@Nullable JsonElement json) {
         if (json != null && !json.isJsonNull()) {
             if (json.isJsonObject()) {
                 JsonObject obj = json.getAsJsonObject();
 
-                Ingredient ingredient = obj.has("ingredient") ? Ingredient.fromJson(obj.get("ingredient")) : Ingredient.fromJson(obj);
+                Ingredient ingredient = internIngredient(obj.has("ingredient") ? obj.get("ingredient") : obj);
                 int count = GsonHelper.getAsInt(obj, "count", 1);
                 double returnChance = Utils.parseChance(obj, "return_chance");
                 return new ItemIngredient(ingredient, count, returnChance);
             } else {
-                Ingredient ingredient = Ingredient.fromJson(json);
+                Ingredient ingredient = internIngredient(json);
                 return new ItemIngredient(ingredient, 1, 0);
             }
         } else {
@@ -60,6 +58,11 @@ public class ItemIngredient extends RecipeIngredient<ItemStack> {
         }
     }
 
+    // different counts or return chances of the same ingredient still share its (lazily resolved) matching stacks
+    private static Ingredient internIngredient(JsonElement json) {
+        return RecipeInterner.intern(Ingredient.class, json, () -> Ingredient.fromJson(json));
+    }
+
     public static ItemIngredient read(FriendlyByteBuf buffer) {
         Ingredient ingredient = Ingredient.fromNetwork(buffer);
         int count = buffer.readVarInt();
@@ -73,6 +76,20 @@ public class ItemIngredient extends RecipeIngredient<ItemStack> {
         buffer.writeDouble(returnChance);
     }
 
+    /**
+     * Serializes the ingredient to JSON, keeping tags as they are. Use with {@link #deserialize(JsonElement)}.
+     *
+     * @return The JSON form of this ingredient
+     */
+    @Override
+    public JsonElement serialize() {
+        JsonObject json = new JsonObject();
+        json.add("ingredient", ingredient.toJson());
+        json.addProperty("count", count);
+        json.addProperty("return_chance", returnChance);
+        return json;
+    }
+
     @Override
     public boolean test(ItemStack stack) {
         return ingredient.test(stack);
@@ -90,35 +107,6 @@ public class ItemIngredient extends RecipeIngredient<ItemStack> {
         return isEmpty ? 0 : returnChance;
     }
 
-    public void setCount(int count) {
-        if (isEmpty) {
-            Interactio.LOGGER.warn("Attempting to modify an empty ingredient, this is not allowed!");
-            return;
-        }
-        this.count = count;
-        updateEmpty();
-    }
-
-    public void grow(int amount) {
-        this.setCount(this.count + amount);
-    }
-
-    public void shrink(int amount) {
-        this.grow(-amount);
-    }
-
-    public ItemIngredient copy() {
-        return new ItemIngredient(ingredient, count, returnChance);
-    }
-
-    public boolean roll() {
-        return r.nextDouble() <= returnChance;
-    }
-
-    public int roll(int times) {
-        return (int) IntStream.range(0, times).filter(i -> roll()).count();
-    }
-
     @Override
     public Collection<ItemStack> getMatching() {
         return Arrays.asList((isEmpty ? Ingredient.EMPTY : ingredient).getItems());
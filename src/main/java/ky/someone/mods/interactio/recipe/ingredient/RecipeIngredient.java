@@ -1,20 +1,18 @@
 package ky.someone.mods.interactio.recipe.ingredient;
 
+import com.google.gson.JsonElement;
 import net.minecraft.network.FriendlyByteBuf;
 
 import java.util.Collection;
 import java.util.Random;
 import java.util.function.Predicate;
-import java.util.stream.IntStream;
 
 public abstract class RecipeIngredient<T> implements Predicate<T> {
     protected boolean isEmpty;
 
-    protected int count;
+    protected final int count;
     protected final double returnChance;
 
-    protected final Random r = new Random();
-
     public RecipeIngredient(int count, double returnChance) {
         this.count = count;
         this.returnChance = returnChance;
@@ -28,12 +26,23 @@ public abstract class RecipeIngredient<T> implements Predicate<T> {
 
     protected abstract void write(FriendlyByteBuf buffer);
 
-    public abstract boolean roll();
+    /**
+     * Unlike {@link #write(FriendlyByteBuf)}, which flattens tags into their current contents,
+     * this keeps around everything needed to get an equivalent ingredient back from the JSON.
+     */
+    public abstract JsonElement serialize();
+
+    public boolean roll(Random random) {
+        return random.nextDouble() <= returnChance;
+    }
 
-    public int roll(int times) {
-        return (int) IntStream.range(0, times)
-                .filter(i -> roll())
-                .count();
+    /**
+     * Rolls the return chance for the given number of items at once, using a single binomial draw.
+     *
+     * @return How many of the items are returned
+     */
+    public int roll(Random random, int times) {
+        return Sampling.binomial(random, times, returnChance);
     }
 
     public abstract Collection<T> getMatching();
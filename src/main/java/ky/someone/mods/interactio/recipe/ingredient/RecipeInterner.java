@@ -0,0 +1,41 @@
+package ky.someone.mods.interactio.recipe.ingredient;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Shares structurally identical ingredients and outputs between all recipes loaded in the same reload,
+ * so things like resolved tags and matching sets only exist (and are computed) once per distinct ingredient.
+ * <p>
+ * Entries are keyed by the JSON they were parsed from (which compares structurally), and kept apart by kind.
+ * Since the meaning of that JSON depends on registries and tags, everything is dropped again after each reload.
+ * Safe to use from several threads at once.
+ */
+public final class RecipeInterner {
+
+    private static final Map<Class<?>, Map<Object, Object>> interned = new ConcurrentHashMap<>();
+
+    private RecipeInterner() {
+    }
+
+    /**
+     * @return The instance previously built for the given key, or the newly built one if there is none yet
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T intern(Class<T> kind, Object key, Supplier<? extends T> factory) {
+        Map<Object, Object> instances = interned.computeIfAbsent(kind, k -> new ConcurrentHashMap<>());
+        Object instance = instances.get(key);
+        if (instance != null) return (T) instance;
+
+        // built outside of the map, since factories may intern nested ingredients themselves,
+        // which computeIfAbsent does not allow; should two threads race here, the first one to finish wins
+        T built = factory.get();
+        Object previous = instances.putIfAbsent(key, built);
+        return previous != null ? (T) previous : built;
+    }
+
+    public static void clear() {
+        interned.clear();
+    }
+}
@@ -0,0 +1,43 @@
+package ky.someone.mods.interactio.recipe.ingredient;
+
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The values an ingredient matches, along with the {@link TagCache#generation() tag generation} they were resolved in.
+ * <p>
+ * Ingredients may be resolved on several threads at once (for example while building recipe snapshots in the background),
+ * so both are kept in one immutable holder, which is published as a whole.
+ */
+final class ResolvedSet<T> {
+    final Set<T> values;
+    final int generation;
+
+    private ResolvedSet(Set<T> values, int generation) {
+        this.values = values;
+        this.generation = generation;
+    }
+
+    boolean isCurrent() {
+        return generation == TagCache.generation();
+    }
+
+    static <T, L> ResolvedSet<T> resolve(L[] lists, Function<L, Collection<T>> values) {
+        // read the generation first, so a reload happening while resolving causes another resolve rather than being missed
+        int generation = TagCache.generation();
+        if (lists.length == 1) {
+            Collection<T> only = values.apply(lists[0]);
+            // a single tag or entry can be used as it is, without copying it
+            if (only instanceof Set) return new ResolvedSet<>((Set<T>) only, generation);
+        }
+
+        Set<T> set = new ReferenceOpenHashSet<>();
+        for (L list : lists) {
+            set.addAll(values.apply(list));
+        }
+        return new ResolvedSet<>(set, generation);
+    }
+}
@@ -0,0 +1,90 @@
+package ky.someone.mods.interactio.recipe.ingredient;
+
+import java.util.Random;
+
+/**
+ * Exact samplers used to roll many crafts worth of chances at once,
+ * instead of flipping one coin per craft.
+ */
+final class Sampling {
+
+    // below this, simply flipping every coin is cheaper than splitting the trials
+    private static final int DIRECT_LIMIT = 16;
+
+    private Sampling() {
+    }
+
+    /**
+     * Samples the number of successes out of {@code n} independent trials with success chance {@code p}.
+     * <p>
+     * Uses Knuth's beta splitting: the {@code a}-th smallest of {@code n} uniform draws is beta-distributed,
+     * and the draws on either side of it are uniform again, so each step halves the number of remaining trials.
+     */
+    static int binomial(Random random, int n, double p) {
+        if (n <= 0 || p <= 0) return 0;
+        if (p >= 1) return n;
+
+        int successes = 0;
+        while (n > DIRECT_LIMIT) {
+            int a = 1 + n / 2;
+            int b = 1 + n - a;
+            double x = beta(random, a, b);
+            if (x >= p) {
+                // the a - 1 draws below x are uniform on [0, x)
+                n = a - 1;
+                p /= x;
+            } else {
+                // all a draws up to x succeed, the b - 1 draws above it are uniform on (x, 1)
+                successes += a;
+                n = b - 1;
+                p = (p - x) / (1 - x);
+            }
+        }
+
+        for (int i = 0; i < n; i++) {
+            if (random.nextDouble() < p) successes++;
+        }
+        return successes;
+    }
+
+    /**
+     * Splits {@code n} draws between the given weights.
+     *
+     * @param counts Receives the number of draws for every weight, needs to be at least as long as {@code weights}
+     */
+    static void multinomial(Random random, int n, double[] weights, int[] counts) {
+        double total = 0;
+        for (double weight : weights) total += weight;
+
+        for (int i = 0; i < weights.length; i++) {
+            // the last weight with any chance left ends up with p >= 1 and takes all remaining draws
+            int k = total <= 0 ? 0 : binomial(random, n, weights[i] / total);
+            counts[i] = k;
+            n -= k;
+            total -= weights[i];
+        }
+    }
+
+    private static double beta(Random random, double a, double b) {
+        double x = gamma(random, a);
+        return x / (x + gamma(random, b));
+    }
+
+    // Marsaglia and Tsang's method, only valid for shape >= 1
+    private static double gamma(Random random, double shape) {
+        double d = shape - 1.0 / 3;
+        double c = 1 / Math.sqrt(9 * d);
+        while (true) {
+            double x, v;
+            do {
+                x = random.nextGaussian();
+                v = 1 + c * x;
+            } while (v <= 0);
+            v = v * v * v;
+
+            double u = random.nextDouble();
+            if (u < 1 - 0.0331 * x * x * x * x) return d * v;
+            if (Math.log(u) < 0.5 * x * x + d * (1 - v + Math.log(v))) return d * v;
+        }
+    }
+}
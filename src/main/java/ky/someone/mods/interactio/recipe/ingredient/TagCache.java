@@ -0,0 +1,111 @@
+package ky.someone.mods.interactio.recipe.ingredient;
+
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.Util;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.SerializationTags;
+import net.minecraft.tags.Tag;
+import net.minecraft.tags.TagCollection;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.material.Fluid;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Resolves block, fluid and entity tags used by ingredients into identity sets, shared between all ingredients using them.
+ * <p>
+ * Whenever tags are reloaded, the {@link #generation()} is bumped and all resolved tags are dropped,
+ * so ingredients know to resolve their matching sets again. Tags that were in use before are then
+ * resolved again in the background, so the first craft after a reload doesn't have to.
+ * <p>
+ * Tags are reloaded on the client thread as well, so this only holds thread-safe state. Anything belonging to
+ * the server, like {@link FluidRegionCache}, should compare the generation on the server thread instead.
+ */
+public final class TagCache {
+
+    private enum Kind {
+        BLOCK(() -> SerializationTags.getInstance().getBlocks()),
+        FLUID(() -> SerializationTags.getInstance().getFluids()),
+        ENTITY(() -> SerializationTags.getInstance().getEntityTypes());
+
+        private final Supplier<TagCollection<?>> tags;
+
+        Kind(Supplier<TagCollection<?>> tags) {
+            this.tags = tags;
+        }
+    }
+
+    // marks tags that don't exist, since concurrent maps can't hold null
+    private static final Set<?> MISSING = Collections.emptySet();
+
+    private static volatile int generation = 0;
+    // replaced as a whole on every reload, so background work for older tags can't end up in here
+    private static volatile Map<Kind, Map<ResourceLocation, Set<?>>> resolved = newCache();
+
+    private TagCache() {
+    }
+
+    public static int generation() {
+        return generation;
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public static Set<Block> blocks(ResourceLocation id) {
+        return (Set<Block>) get(Kind.BLOCK, id);
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public static Set<Fluid> fluids(ResourceLocation id) {
+        return (Set<Fluid>) get(Kind.FLUID, id);
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public static Set<EntityType<?>> entities(ResourceLocation id) {
+        return (Set<EntityType<?>>) get(Kind.ENTITY, id);
+    }
+
+    /**
+     * @return An unmodifiable identity set of all values in the given tag, or null if there is no such tag right now
+     */
+    @Nullable
+    private static Set<?> get(Kind kind, ResourceLocation id) {
+        Set<?> values = resolved.get(kind).computeIfAbsent(id, k -> resolve(kind, k));
+        return values == MISSING ? null : values;
+    }
+
+    private static Set<?> resolve(Kind kind, ResourceLocation id) {
+        Tag<?> tag = kind.tags.get().getTag(id);
+        if (tag == null) return MISSING;
+        return Collections.unmodifiableSet(new ReferenceOpenHashSet<>(tag.getValues()));
+    }
+
+    public static synchronized void invalidate() {
+        Map<Kind, Map<ResourceLocation, Set<?>>> previous = resolved;
+        Map<Kind, Map<ResourceLocation, Set<?>>> cache = newCache();
+        resolved = cache;
+        generation++;
+
+        CompletableFuture.runAsync(() -> previous.forEach((kind, tags) -> {
+            Map<ResourceLocation, Set<?>> current = cache.get(kind);
+            tags.keySet().forEach(id -> current.computeIfAbsent(id, k -> resolve(kind, k)));
+        }), Util.backgroundExecutor());
+    }
+
+    private static Map<Kind, Map<ResourceLocation, Set<?>>> newCache() {
+        Map<Kind, Map<ResourceLocation, Set<?>>> cache = new ConcurrentHashMap<>();
+        for (Kind kind : Kind.values()) {
+            cache.put(kind, new ConcurrentHashMap<>());
+        }
+        return cache;
+    }
+}
@@ -11,13 +11,26 @@ import net.minecraft.util.GsonHelper;
 
 import javax.annotation.Nullable;
 import java.util.*;
-import java.util.function.Predicate;
+import java.util.function.ObjIntConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
-public class WeightedOutput<E> extends LinkedHashSet<WeightedEntry<E>> {
-
-    public final Random random;
+/**
+ * A set of weighted results to pick from, optionally including a chance for nothing at all.
+ * <p>
+ * Outputs start out mutable, backed by a regular list of entries. Once {@link #freeze() frozen}
+ * (which {@link #deserialize} and {@link #read} do automatically), only flat arrays of results and weights
+ * plus the alias table used for rolling are kept around, and any further modification throws.
+ * Iterating a frozen output yields fresh {@link WeightedEntry} views of those arrays, which compare equal
+ * to the entries they were built from.
+ * <p>
+ * The same result may be added more than once, in which case its weights simply add up.
+ */
+public class WeightedOutput<E> extends AbstractCollection<WeightedEntry<E>> {
+
+    private static final Object[] NO_SLOTS = new Object[0];
+    private static final double[] NO_WEIGHTS = new double[0];
+    private static final int[] NO_INTS = new int[0];
 
     public final double emptyWeight;
 
@@ -27,22 +40,28 @@ public class WeightedOutput<E> extends LinkedHashSet<WeightedEntry<E>> {
 
     private double totalWeight = 0.0;
 
-    private final NavigableMap<Double, E> ranges = new TreeMap<>();
+    // the entries while this output is still being built, dropped once it's frozen
+    @Nullable
+    private List<WeightedEntry<E>> building = new ArrayList<>();
+    private int size = 0;
 
-    public WeightedOutput(double emptyWeight) {
-        this(new Random(), emptyWeight);
-    }
+    // alias table used for sampling, see compile(); the empty result is stored as null in the last slot
+    private Object[] slots = NO_SLOTS;
+    private double[] probabilities = NO_WEIGHTS;
+    private int[] aliases = NO_INTS;
+    // raw weight of every slot; scratch space for rolls is allocated per call, since outputs are shared between recipes and threads
+    private double[] weights = NO_WEIGHTS;
+    private boolean dirty = true;
 
-    public WeightedOutput(Random random, double emptyWeight) {
-        this(random, emptyWeight, 1);
+    public WeightedOutput(double emptyWeight) {
+        this(emptyWeight, 1);
     }
 
-    public WeightedOutput(Random random, double emptyWeight, int rolls) {
-        this(random, emptyWeight, rolls, false);
+    public WeightedOutput(double emptyWeight, int rolls) {
+        this(emptyWeight, rolls, false);
     }
 
-    public WeightedOutput(Random random, double emptyWeight, int rolls, boolean unique) {
-        this.random = random;
+    public WeightedOutput(double emptyWeight, int rolls, boolean unique) {
         this.emptyWeight = Math.max(emptyWeight, 0);
         this.rolls = Math.max(rolls, 1);
         this.unique = unique;
@@ -55,43 +74,112 @@ public class WeightedOutput<E> extends LinkedHashSet<WeightedEntry<E>> {
     @Override
     public boolean add(WeightedEntry<E> entry) {
         if (entry == null) return false;
-        boolean success = super.add(entry);
+        boolean success = building().add(entry);
         updateChances();
         return success;
     }
 
     @Override
     public boolean remove(Object entry) {
-        boolean success = super.remove(entry);
+        boolean success = building().remove(entry);
         updateChances();
         return success;
     }
 
     @Override
     public boolean addAll(Collection<? extends WeightedEntry<E>> c) {
-        boolean modified = c.stream()
-                .filter(Objects::nonNull)
-                .map(super::add) // avoid unnecessarily updating chances by using super
-                .reduce(false, Boolean::logicalOr);
+        List<WeightedEntry<E>> building = building();
+        boolean modified = false;
+        for (WeightedEntry<E> entry : c) {
+            if (entry != null) modified |= building.add(entry);
+        }
         updateChances();
         return modified;
     }
 
     @Override
     public boolean removeAll(Collection<?> c) {
-        boolean modified = c.stream()
-                .map(super::remove) // avoid unnecessarily updating chances by using super
-                .reduce(false, Boolean::logicalOr);
+        boolean modified = building().removeAll(c);
         updateChances();
         return modified;
     }
 
+    @Override
+    public void clear() {
+        building().clear();
+        updateChances();
+    }
+
+    @Override
+    public Iterator<WeightedEntry<E>> iterator() {
+        if (building == null) return new FrozenIterator();
+
+        Iterator<WeightedEntry<E>> it = building.iterator();
+        return new Iterator<WeightedEntry<E>>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public WeightedEntry<E> next() {
+                return it.next();
+            }
+
+            @Override
+            public void remove() {
+                it.remove();
+                updateChances();
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return building == null ? size : building.size();
+    }
+
+    /**
+     * Drops the mutable entry set, keeping only the compiled arrays.
+     * Afterwards, trying to modify this output throws an {@link UnsupportedOperationException}.
+     *
+     * @return This output
+     */
+    public WeightedOutput<E> freeze() {
+        if (building != null) {
+            compile();
+            size = building.size();
+            building = null;
+        }
+        return this;
+    }
+
+    public boolean isFrozen() {
+        return building == null;
+    }
+
+    private List<WeightedEntry<E>> building() {
+        if (building == null) throw new UnsupportedOperationException("Cannot modify a frozen weighted output!");
+        return building;
+    }
+
+    /**
+     * @return An unmodifiable list of all possible (non-empty) results, in the order they were added
+     */
+    @SuppressWarnings("unchecked")
+    public List<E> getResults() {
+        if (building != null) return building.stream().map(WeightedEntry::getResult).collect(Collectors.toList());
+        return (List<E>) Collections.unmodifiableList(Arrays.asList(slots).subList(0, size));
+    }
+
     public double getChance(WeightedEntry<E> entry) {
+        compile();
         return entry.getWeight() / totalWeight;
     }
 
     public double totalWeight() {
-        return stream().mapToDouble(WeightedEntry::getWeight).sum() + emptyWeight;
+        if (building == null) return totalWeight;
+        return building.stream().mapToDouble(WeightedEntry::getWeight).sum() + emptyWeight;
     }
 
     public boolean isSingle() {
@@ -99,38 +187,157 @@ public class WeightedOutput<E> extends LinkedHashSet<WeightedEntry<E>> {
     }
 
     private void updateChances() {
-        ranges.clear();
-        ranges.put(0.0, null);
+        // the table is only rebuilt once it's needed, so adding lots of entries in a row stays linear
+        dirty = true;
+    }
+
+    /**
+     * Builds the alias table for this output using Vose's method,
+     * which lets {@link #rollOnce(Random)} pick a result in constant time.
+     */
+    private void compile() {
+        if (!dirty) return;
 
         totalWeight = totalWeight();
-        double acc = emptyWeight / totalWeight;
-        for (WeightedEntry<E> entry : this) {
-            ranges.put(acc, entry.getResult());
-            acc += entry.getWeight() / totalWeight;
+        int n = size() + (emptyWeight > 0 ? 1 : 0);
+        Object[] slots = new Object[n];
+        double[] probabilities = new double[n];
+        int[] aliases = new int[n];
+        double[] weights = new double[n];
+
+        int i = 0;
+        for (WeightedEntry<E> entry : building()) {
+            slots[i] = entry.getResult();
+            weights[i++] = entry.getWeight();
+        }
+        if (i < n) weights[i] = emptyWeight;
+
+        if (totalWeight > 0) {
+            // scaled so that the average slot has a weight of exactly 1
+            double[] scaled = new double[n];
+            for (i = 0; i < n; i++) {
+                scaled[i] = weights[i] * n / totalWeight;
+            }
+
+            int[] small = new int[n];
+            int[] large = new int[n];
+            int smallSize = 0, largeSize = 0;
+            for (i = 0; i < n; i++) {
+                if (scaled[i] < 1) small[smallSize++] = i;
+                else large[largeSize++] = i;
+            }
+
+            while (smallSize > 0 && largeSize > 0) {
+                int less = small[--smallSize];
+                int more = large[--largeSize];
+                probabilities[less] = scaled[less];
+                aliases[less] = more;
+                scaled[more] = (scaled[more] + scaled[less]) - 1;
+                if (scaled[more] < 1) small[smallSize++] = more;
+                else large[largeSize++] = more;
+            }
+            // anything left over only differs from 1 by rounding errors
+            while (largeSize > 0) probabilities[large[--largeSize]] = 1;
+            while (smallSize > 0) probabilities[small[--smallSize]] = 1;
         }
+
+        this.slots = slots;
+        this.probabilities = probabilities;
+        this.aliases = aliases;
+        this.weights = weights;
+        this.dirty = false;
     }
 
     @Nullable
-    public E rollOnce() {
-        double d = random.nextDouble();
-        Map.Entry<Double, E> match = ranges.floorEntry(d);
-        return match.getValue();
+    @SuppressWarnings("unchecked")
+    public E rollOnce(Random random) {
+        compile();
+        int n = slots.length;
+        if (n == 0 || totalWeight <= 0) return null;
+
+        // a single draw picks both the column and the coin flip inside it
+        double d = random.nextDouble() * n;
+        int column = Math.min((int) d, n - 1);
+        return (E) (d - column < probabilities[column] ? slots[column] : slots[aliases[column]]);
     }
 
-    @Nullable
-    public E rollFiltered(Predicate<WeightedEntry<E>> filter) {
-        WeightedOutput<E> filtered = new WeightedOutput<>(this.random, this.emptyWeight, this.rolls, unique);
-        filtered.addAll(stream().filter(filter).collect(Collectors.toSet()));
-        return filtered.rollOnce();
+    /**
+     * Rolls this output {@link #rolls} times, adding all non-empty results to the given list.
+     * Passing the same list again (after clearing it) avoids allocating anything while rolling.
+     *
+     * @return The given list
+     */
+    public <C extends Collection<? super E>> C roll(Random random, C into) {
+        if (unique) rollUnique(random, into);
+        else for (int i = 0; i < rolls; i++) {
+            E result = rollOnce(random);
+            if (result != null) into.add(result);
+        }
+        return into;
     }
 
-    public Collection<E> roll() {
-        Collection<E> results = new ArrayList<>();
-        for (int i = 0; i < rolls; i++) {
-            results.add(unique ? rollFiltered(e -> !results.contains(e.getResult())) : rollOnce());
+    /**
+     * Rolls this output for {@code times} crafts at once, passing every non-empty result along with how often it came up.
+     * Unless the output is unique, this is a single multinomial draw, so it costs the same no matter how many crafts there are.
+     */
+    @SuppressWarnings("unchecked")
+    public void rollMany(Random random, int times, ObjIntConsumer<? super E> consumer) {
+        if (times <= 0) return;
+        compile();
+
+        if (unique) {
+            List<E> results = new ArrayList<>(rolls);
+            for (int i = 0; i < times; i++) {
+                rollUnique(random, results);
+                results.forEach(result -> consumer.accept(result, 1));
+                results.clear();
+            }
+            return;
+        }
+
+        int draws = (int) Math.min((long) times * rolls, Integer.MAX_VALUE);
+        int[] counts = new int[slots.length];
+        Sampling.multinomial(random, draws, weights, counts);
+        for (int i = 0; i < slots.length; i++) {
+            if (counts[i] > 0 && slots[i] != null) consumer.accept((E) slots[i], counts[i]);
+        }
+    }
+
+    /**
+     * Draws without replacement directly on the compiled weights: every result can be picked at most once,
+     * while the empty result stays available for every roll.
+     */
+    @SuppressWarnings("unchecked")
+    private void rollUnique(Random random, Collection<? super E> into) {
+        compile();
+        int n = slots.length;
+        double[] remaining = Arrays.copyOf(weights, n);
+        double total = totalWeight;
+
+        for (int roll = 0; roll < rolls && total > 0; roll++) {
+            double d = random.nextDouble() * total;
+            int picked = -1;
+            for (int i = 0; i < n; i++) {
+                if (remaining[i] <= 0) continue;
+                picked = i;
+                // rounding errors may leave d slightly positive at the end, in which case the last candidate wins
+                if ((d -= remaining[i]) < 0) break;
+            }
+
+            if (picked < 0) break;
+
+            Object result = slots[picked];
+            if (result == null) continue;
+            into.add((E) result);
+
+            // entries sharing the same result are used up as well
+            for (int i = 0; i < n; i++) {
+                if (remaining[i] > 0 && Objects.equals(slots[i], result)) {
+                    total -= remaining[i];
+                    remaining[i] = 0;
+                }
+            }
         }
-        results.removeIf(Objects::isNull);
-        return results;
     }
 
     public static <E> WeightedOutput<E> deserialize(JsonObject json, IEntrySerializer<E> serializer) {
@@ -138,7 +345,7 @@ public class WeightedOutput<E> extends LinkedHashSet<WeightedEntry<E>> {
         int rolls = GsonHelper.getAsInt(json, "rolls", 1);
         boolean unique = GsonHelper.getAsBoolean(json, "unique", false);
 
-        WeightedOutput<E> output = new WeightedOutput<>(new Random(), emptyWeight, rolls, unique);
+        WeightedOutput<E> output = new WeightedOutput<>(emptyWeight, rolls, unique);
 
         JsonElement el = json.get("entries");
         JsonArray arr;
@@ -158,7 +365,7 @@ public class WeightedOutput<E> extends LinkedHashSet<WeightedEntry<E>> {
                     output.add(result, weight);
                 });
 
-        return output;
+        return output.freeze();
     }
 
     public static <E> WeightedOutput<E> read(FriendlyByteBuf buffer, IEntrySerializer<E> serializer) {
@@ -166,7 +373,7 @@ public class WeightedOutput<E> extends LinkedHashSet<WeightedEntry<E>> {
         int rolls = buffer.readVarInt();
         boolean unique = buffer.readBoolean();
 
-        WeightedOutput<E> output = new WeightedOutput<>(new Random(), emptyWeight, rolls, unique);
+        WeightedOutput<E> output = new WeightedOutput<>(emptyWeight, rolls, unique);
 
         int size = buffer.readVarInt();
         for (int i = 0; i < size; i++) {
@@ -175,7 +382,7 @@ public class WeightedOutput<E> extends LinkedHashSet<WeightedEntry<E>> {
             output.add(result, weight);
         }
 
-        return output;
+        return output.freeze();
     }
 
     public void write(FriendlyByteBuf buffer, IEntrySerializer<E> serializer) {
@@ -190,6 +397,24 @@ public class WeightedOutput<E> extends LinkedHashSet<WeightedEntry<E>> {
         });
     }
 
+    private class FrozenIterator implements Iterator<WeightedEntry<E>> {
+        private int next = 0;
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public WeightedEntry<E> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            WeightedEntry<E> entry = new WeightedEntry<>((E) slots[next], weights[next]);
+            next++;
+            return entry;
+        }
+    }
+
     public static final class WeightedEntry<T> {
         private final T result;
         private final double weight;
@@ -207,6 +432,19 @@ public class WeightedOutput<E> extends LinkedHashSet<WeightedEntry<E>> {
             return this.weight;
         }
 
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof WeightedEntry)) return false;
+            WeightedEntry<?> other = (WeightedEntry<?>) o;
+            return Double.compare(weight, other.weight) == 0 && Objects.equals(result, other.result);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(result) + Double.hashCode(weight);
+        }
+
         public String toString() {
             return "WeightedOutput.WeightedEntry(result=" + this.getResult() + ", weight=" + this.getWeight() + ")";
         }
@@ -0,0 +1,136 @@
+package ky.someone.mods.interactio.recipe.limit;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import ky.someone.mods.interactio.InteractioConfig;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.item.crafting.RecipeType;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+
+import java.util.*;
+
+/**
+ * A token bucket rate limiter for in-world crafts, keeping one bucket per chunk and recipe type.
+ * <p>
+ * Every single craft (for example one iteration of {@link ky.someone.mods.interactio.recipe.base.InWorldRecipe#craftItemList})
+ * takes one token out of its bucket. Once a bucket runs dry, the rest of the craft is queued up and continued
+ * on a later tick, after the bucket has refilled.
+ */
+public class CraftRateLimiter {
+    protected static Map<Level, CraftRateLimiter> limiters = new WeakHashMap<>();
+
+    public static CraftRateLimiter get(Level level) {
+        return limiters.computeIfAbsent(level, k -> new CraftRateLimiter());
+    }
+
+    /**
+     * @return True if a craft of the given type may happen at the given position right now.
+     * If so, the craft has already been accounted for.
+     */
+    public static boolean tryAcquire(Level level, BlockPos pos, RecipeType<?> type) {
+        if (level.isClientSide || !InteractioConfig.LIMIT_CRAFTS.get()) return true;
+        return get(level).bucket(type, pos).tryAcquire(level.getGameTime());
+    }
+
+    /**
+     * Postpones the rest of a craft until the bucket for the given chunk and recipe type has tokens again.
+     */
+    public static void defer(Level level, BlockPos pos, RecipeType<?> type, Runnable craft) {
+        get(level).bucket(type, pos).pending.add(craft);
+    }
+
+    public static void tickAll(Level level) {
+        CraftRateLimiter limiter = limiters.get(level);
+        if (limiter != null) limiter.tick(level);
+    }
+
+    /**
+     * Drops all buckets of a level that is being unloaded. Deferred crafts hold on to their level,
+     * so the level could never be collected from the weak map while any of them are still queued.
+     */
+    public static void unload(Level level) {
+        limiters.remove(level);
+    }
+
+    protected final Map<RecipeType<?>, Long2ObjectMap<Bucket>> buckets = new HashMap<>();
+
+    protected CraftRateLimiter() {
+    }
+
+    protected Bucket bucket(RecipeType<?> type, BlockPos pos) {
+        Long2ObjectMap<Bucket> byChunk = buckets.computeIfAbsent(type, k -> new Long2ObjectOpenHashMap<>());
+        long chunk = ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4);
+        Bucket bucket = byChunk.get(chunk);
+        if (bucket == null) {
+            bucket = new Bucket(InteractioConfig.CRAFT_BURST.get());
+            byChunk.put(chunk, bucket);
+        }
+        return bucket;
+    }
+
+    public Map<RecipeType<?>, Long2ObjectMap<Bucket>> getBuckets() {
+        return Collections.unmodifiableMap(buckets);
+    }
+
+    public void tick(Level level) {
+        long time = level.getGameTime();
+        int capacity = InteractioConfig.CRAFT_BURST.get();
+
+        for (Long2ObjectMap<Bucket> byChunk : buckets.values()) {
+            Iterator<Bucket> it = byChunk.values().iterator();
+            while (it.hasNext()) {
+                Bucket bucket = it.next();
+                bucket.refill(time);
+                bucket.runPending();
+
+                // forget about chunks that have fully recovered and have nothing left to do
+                if (bucket.pending.isEmpty() && bucket.tokens >= capacity) it.remove();
+            }
+        }
+    }
+
+    public static class Bucket {
+        private double tokens;
+        private long lastRefill = -1;
+
+        private Deque<Runnable> pending = new ArrayDeque<>();
+
+        protected Bucket(double tokens) {
+            this.tokens = tokens;
+        }
+
+        protected void refill(long time) {
+            if (lastRefill >= 0 && time > lastRefill) {
+                tokens = Math.min(InteractioConfig.CRAFT_BURST.get(), tokens + (time - lastRefill) * InteractioConfig.CRAFTS_PER_TICK.get());
+            }
+            lastRefill = time;
+        }
+
+        protected boolean tryAcquire(long time) {
+            refill(time);
+            if (tokens < 1) return false;
+            tokens--;
+            return true;
+        }
+
+        protected void runPending() {
+            // crafts that get deferred again while running end up in a fresh queue, so they wait for the next tick
+            Deque<Runnable> queue = pending;
+            pending = new ArrayDeque<>();
+            while (!queue.isEmpty() && tokens >= 1) {
+                queue.poll().run();
+            }
+            queue.addAll(pending);
+            pending = queue;
+        }
+
+        public double getTokens() {
+            return tokens;
+        }
+
+        public int getPending() {
+            return pending.size();
+        }
+    }
+}
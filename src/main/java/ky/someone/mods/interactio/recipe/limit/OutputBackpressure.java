@@ -0,0 +1,88 @@
+package ky.someone.mods.interactio.recipe.limit;
+
+import ky.someone.mods.interactio.InteractioConfig;
+import net.minecraft.core.BlockPos;
+import net.minecraft.util.ClassInstanceMultiMap;
+import net.minecraft.util.Mth;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.item.ItemEntity;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.chunk.LevelChunk;
+
+import javax.annotation.Nullable;
+
+/**
+ * Keeps crafts from piling up even more item entities in chunks that already contain too many of them.
+ * <p>
+ * Item density is read from the chunk's own per-class entity lists, so checking it costs
+ * a handful of list lookups instead of a bounding box query per craft.
+ */
+public final class OutputBackpressure {
+
+    public enum Mode {
+        /**
+         * Never apply any backpressure
+         */
+        NONE,
+        /**
+         * Merge outputs into the largest matching stack nearby
+         */
+        MERGE,
+        /**
+         * Like {@link #MERGE}, but also hold back duration crafts from finishing until the chunk has cleared up
+         */
+        PAUSE
+    }
+
+    public static int countItems(Level level, BlockPos pos) {
+        int count = 0;
+        for (ClassInstanceMultiMap<Entity> section : level.getChunkAt(pos).getEntitySections()) {
+            count += section.find(ItemEntity.class).size();
+        }
+        return count;
+    }
+
+    public static boolean isCongested(Level level, BlockPos pos) {
+        if (level.isClientSide || InteractioConfig.BACKPRESSURE_MODE.get() == Mode.NONE) return false;
+        return countItems(level, pos) >= InteractioConfig.BACKPRESSURE_THRESHOLD.get();
+    }
+
+    public static boolean shouldPause(Level level, BlockPos pos) {
+        return InteractioConfig.BACKPRESSURE_MODE.get() == Mode.PAUSE && isCongested(level, pos);
+    }
+
+    /**
+     * Merges as much of the given stack as possible into existing item entities in the same chunk section,
+     * always filling up the largest matching stack first.
+     *
+     * @param stack        The stack to merge. This stack WILL be shrunk by the amount that could be merged.
+     * @param invulnerable Whether the output would have been invulnerable, only entities with the same invulnerability are merged into
+     */
+    public static void merge(Level level, BlockPos pos, ItemStack stack, boolean invulnerable) {
+        LevelChunk chunk = level.getChunkAt(pos);
+        ClassInstanceMultiMap<Entity>[] sections = chunk.getEntitySections();
+        ClassInstanceMultiMap<Entity> section = sections[Mth.clamp(pos.getY() >> 4, 0, sections.length - 1)];
+
+        ItemEntity target;
+        while (!stack.isEmpty() && (target = findLargest(section, stack, invulnerable)) != null) {
+            ItemStack merged = target.getItem().copy();
+            int moved = Math.min(stack.getCount(), merged.getMaxStackSize() - merged.getCount());
+            merged.grow(moved);
+            stack.shrink(moved);
+            target.setItem(merged);
+        }
+    }
+
+    @Nullable
+    private static ItemEntity findLargest(ClassInstanceMultiMap<Entity> section, ItemStack stack, boolean invulnerable) {
+        ItemEntity largest = null;
+        for (ItemEntity entity : section.find(ItemEntity.class)) {
+            if (!entity.isAlive() || entity.isInvulnerable() != invulnerable) continue;
+            ItemStack existing = entity.getItem();
+            if (existing.getCount() >= existing.getMaxStackSize() || !ItemEntity.areMergable(existing, stack)) continue;
+            if (largest == null || existing.getCount() > largest.getItem().getCount()) largest = entity;
+        }
+        return largest;
+    }
+}
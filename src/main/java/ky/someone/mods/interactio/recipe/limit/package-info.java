@@ -0,0 +1,3 @@
+@ky.someone.mods.interactio.NonnullByDefault
+
+package ky.someone.mods.interactio.recipe.limit;
\ No newline at end of file
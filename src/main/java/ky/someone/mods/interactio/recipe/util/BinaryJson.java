@@ -0,0 +1,100 @@
+package ky.someone.mods.interactio.recipe.util;
+
+import com.google.gson.*;
+import net.minecraft.network.FriendlyByteBuf;
+
+import java.util.Map;
+
+/**
+ * A small tagged binary encoding for arbitrary JSON, used to send free-form data like event configs
+ * without going through JSON text on either side.
+ */
+public final class BinaryJson {
+
+    private static final byte NULL = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte INT = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte STRING = 5;
+    private static final byte ARRAY = 6;
+    private static final byte OBJECT = 7;
+
+    private BinaryJson() {
+    }
+
+    public static void write(FriendlyByteBuf buffer, JsonElement json) {
+        if (json == null || json.isJsonNull()) {
+            buffer.writeByte(NULL);
+        } else if (json.isJsonObject()) {
+            buffer.writeByte(OBJECT);
+            JsonObject obj = json.getAsJsonObject();
+            buffer.writeVarInt(obj.size());
+            for (Map.Entry<String, JsonElement> entry : obj.entrySet()) {
+                buffer.writeUtf(entry.getKey());
+                write(buffer, entry.getValue());
+            }
+        } else if (json.isJsonArray()) {
+            buffer.writeByte(ARRAY);
+            JsonArray arr = json.getAsJsonArray();
+            buffer.writeVarInt(arr.size());
+            for (JsonElement element : arr) {
+                write(buffer, element);
+            }
+        } else {
+            JsonPrimitive primitive = json.getAsJsonPrimitive();
+            if (primitive.isBoolean()) {
+                buffer.writeByte(primitive.getAsBoolean() ? TRUE : FALSE);
+            } else if (primitive.isNumber()) {
+                double value = primitive.getAsDouble();
+                if (value == (int) value) {
+                    buffer.writeByte(INT);
+                    buffer.writeVarInt((int) value);
+                } else {
+                    buffer.writeByte(DOUBLE);
+                    buffer.writeDouble(value);
+                }
+            } else {
+                buffer.writeByte(STRING);
+                buffer.writeUtf(primitive.getAsString());
+            }
+        }
+    }
+
+    public static JsonElement read(FriendlyByteBuf buffer) {
+        byte tag = buffer.readByte();
+        switch (tag) {
+            case NULL:
+                return JsonNull.INSTANCE;
+            case TRUE:
+                return new JsonPrimitive(true);
+            case FALSE:
+                return new JsonPrimitive(false);
+            case INT:
+                return new JsonPrimitive(buffer.readVarInt());
+            case DOUBLE:
+                return new JsonPrimitive(buffer.readDouble());
+            case STRING:
+                return new JsonPrimitive(buffer.readUtf());
+            case ARRAY: {
+                int size = buffer.readVarInt();
+                JsonArray arr = new JsonArray();
+                for (int i = 0; i < size; i++) {
+                    arr.add(read(buffer));
+                }
+                return arr;
+            }
+            case OBJECT: {
+                int size = buffer.readVarInt();
+                JsonObject obj = new JsonObject();
+                for (int i = 0; i < size; i++) {
+                    String key = buffer.readUtf();
+                    obj.add(key, read(buffer));
+                }
+                return obj;
+            }
+            default:
+                throw new JsonParseException("Unknown binary JSON tag " + tag + "!");
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package ky.someone.mods.interactio.recipe.util;
+
+import net.minecraft.world.level.Level;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.Random;
+import java.util.WeakHashMap;
+
+/**
+ * The source of randomness for everything a recipe rolls, kept separately for every level.
+ * <p>
+ * Uses the same SplitMix64 generator as {@link java.util.SplittableRandom}, but extends {@link Random}
+ * so it can be handed to vanilla helpers like {@link net.minecraft.util.Mth#nextDouble(Random, double, double)}.
+ * Unlike {@link Random}, it does no synchronisation at all, so each source is only meant to be used by its level's thread;
+ * use {@link #split()} to hand work off to somewhere else.
+ * <p>
+ * Setting a seed override through {@link #setSeedOverride(Long)} makes every level's rolls reproducible,
+ * which is mostly useful for tests and benchmarks.
+ */
+public class RecipeRandom extends Random {
+    protected static Map<Level, RecipeRandom> sources = new WeakHashMap<>();
+
+    @Nullable
+    private static Long seedOverride = null;
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    public static RecipeRandom get(Level level) {
+        return sources.computeIfAbsent(level, k -> new RecipeRandom(seedFor(k)));
+    }
+
+    /**
+     * Fixes the seed of all recipe randomness, reseeding every existing source right away.
+     * Each level still gets its own stream, derived from the given seed and its dimension.
+     *
+     * @param seed The seed to use, or null to go back to unpredictable seeds
+     */
+    public static void setSeedOverride(@Nullable Long seed) {
+        seedOverride = seed;
+        sources.forEach((level, random) -> random.setSeed(seedFor(level)));
+    }
+
+    private static long seedFor(Level level) {
+        if (seedOverride == null) return level.random.nextLong() ^ System.nanoTime();
+        return mix(seedOverride + GOLDEN_GAMMA * level.dimension().location().hashCode());
+    }
+
+    private long state;
+
+    public RecipeRandom(long seed) {
+        super(seed);
+        this.state = seed;
+    }
+
+    /**
+     * @return A new, independent source seeded from this one
+     */
+    public RecipeRandom split() {
+        return new RecipeRandom(mix(nextLong()));
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        // also resets the cached gaussian in Random
+        super.setSeed(seed);
+        this.state = seed;
+    }
+
+    @Override
+    protected int next(int bits) {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+
+    @Override
+    public long nextLong() {
+        return mix(state += GOLDEN_GAMMA);
+    }
+
+    @Override
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,121 @@
+package ky.someone.mods.interactio.recipe.util;
+
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.bytes.ByteArrays;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenCustomHashMap;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraftforge.common.util.Lazy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates the parts of recipes that are sent over the network, like ingredients, outputs and event configs.
+ * <p>
+ * One dictionary is kept per recipe type and packet buffer, and is filled as recipes are written to or read from it:
+ * every entry is prefixed with a varint, which is {@code 0} if the entry follows inline (and is added to the dictionary),
+ * or the index of an earlier entry of the same kind plus one. Two entries count as equal if they are of the same kind
+ * and their binary forms are identical.
+ * On the receiving end, all references to the same entry share a single decoded instance.
+ * <p>
+ * A disabled dictionary writes and reads every entry inline, without any prefix.
+ * <p>
+ * Entries written through {@link #writeLazy} are additionally prefixed with their length,
+ * so {@link #readLazy} can keep around just their bytes and only decode them once they're first needed.
+ */
+public class SyncDictionary {
+
+    private final boolean enabled;
+
+    // entries are kept apart by kind, so an ingredient can't end up being read back as an output with the same bytes
+    private final Map<Class<?>, Object2IntMap<byte[]>> written = new HashMap<>();
+    private final Map<Class<?>, List<Object>> read = new HashMap<>();
+
+    public SyncDictionary(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public <T> void write(FriendlyByteBuf buffer, Class<? super T> kind, T value, BiConsumer<T, FriendlyByteBuf> writer) {
+        if (!enabled) {
+            writer.accept(value, buffer);
+            return;
+        }
+
+        byte[] bytes = encode(value, writer);
+        if (writeReference(buffer, kind, bytes)) buffer.writeBytes(bytes);
+    }
+
+    public <T> void writeLazy(FriendlyByteBuf buffer, Class<? super T> kind, T value, BiConsumer<T, FriendlyByteBuf> writer) {
+        byte[] bytes = encode(value, writer);
+        if (!enabled || writeReference(buffer, kind, bytes)) buffer.writeByteArray(bytes);
+    }
+
+    /**
+     * @return Whether the entry is new, and so has to be written inline
+     */
+    private boolean writeReference(FriendlyByteBuf buffer, Class<?> kind, byte[] bytes) {
+        Object2IntMap<byte[]> written = this.written.computeIfAbsent(kind, k -> {
+            Object2IntMap<byte[]> map = new Object2IntOpenCustomHashMap<>(ByteArrays.HASH_STRATEGY);
+            map.defaultReturnValue(-1);
+            return map;
+        });
+        int index = written.getInt(bytes);
+        if (index >= 0) {
+            buffer.writeVarInt(index + 1);
+            return false;
+        }
+        written.put(bytes, written.size());
+        buffer.writeVarInt(0);
+        return true;
+    }
+
+    private static <T> byte[] encode(T value, BiConsumer<T, FriendlyByteBuf> writer) {
+        FriendlyByteBuf scratch = new FriendlyByteBuf(Unpooled.buffer());
+        writer.accept(value, scratch);
+        byte[] bytes = new byte[scratch.readableBytes()];
+        scratch.readBytes(bytes);
+        scratch.release();
+        return bytes;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T read(FriendlyByteBuf buffer, Class<? super T> kind, Function<FriendlyByteBuf, T> reader) {
+        if (!enabled) return reader.apply(buffer);
+
+        List<Object> read = this.read.computeIfAbsent(kind, k -> new ArrayList<>());
+        int ref = buffer.readVarInt();
+        if (ref > read.size()) throw new IllegalStateException("Unknown dictionary entry " + ref + "!");
+        if (ref > 0) return (T) read.get(ref - 1);
+
+        T value = reader.apply(buffer);
+        read.add(value);
+        return value;
+    }
+
+    /**
+     * Reads an entry written using {@link #writeLazy}. Its bytes are kept as they are,
+     * and only decoded (once) the first time the returned supplier is queried.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Supplier<T> readLazy(FriendlyByteBuf buffer, Class<? super T> kind, Function<FriendlyByteBuf, T> reader) {
+        List<Object> read = this.read.computeIfAbsent(kind, k -> new ArrayList<>());
+        int ref = enabled ? buffer.readVarInt() : 0;
+        if (ref > read.size()) throw new IllegalStateException("Unknown dictionary entry " + ref + "!");
+        if (ref > 0) return (Supplier<T>) read.get(ref - 1);
+
+        byte[] bytes = buffer.readByteArray();
+        Supplier<T> value = Lazy.concurrentOf(() -> reader.apply(new FriendlyByteBuf(Unpooled.wrappedBuffer(bytes))));
+        if (enabled) read.add(value);
+        return value;
+    }
+}